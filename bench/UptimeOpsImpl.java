@@ -0,0 +1,72 @@
+import benchmarks.UptimeOps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** UptimeOps backed by the application classes (see UptimeOps for why this exists). */
+public class UptimeOpsImpl implements UptimeOps {
+
+    @Override
+    public ParsedInput parse(String path, int parseThreads) throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.setReportParallelism(parseThreads);
+        parser.parse(path);
+        StationUptime uptime = new StationUptime(parser);
+        long[] stationIds = parser.stationToChargers.stationIds();
+
+        return new ParsedInput() {
+            @Override
+            public long[] stationIds() {
+                return stationIds;
+            }
+
+            @Override
+            public int computeUptime(long stationId) {
+                return uptime.computeUptime(stationId);
+            }
+        };
+    }
+
+    @Override
+    public void sortIntervals(String algorithm, long[] starts, long[] ends) {
+        switch (algorithm) {
+            case "auto" -> IntervalSort.sortByStart(starts, ends, starts.length);
+            case "radix" -> IntervalSort.radixSort(starts, ends, starts.length);
+            case "comparison" -> IntervalSort.comparisonSort(starts, ends, starts.length);
+            default -> throw new IllegalArgumentException("Unknown sort: " + algorithm);
+        }
+    }
+
+    @Override
+    public void ingestConcurrently(int chargers, long[] chargerIds, long[] starts, long[] ends, int producers)
+            throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        for (long cid = 0; cid < chargers; cid++) parser.addStation(cid, new long[]{cid});
+        ConcurrentIntervalStore store = new ConcurrentIntervalStore(parser);
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> feeds = new ArrayList<>();
+            int slice = chargerIds.length / producers;
+            for (int p = 0; p < producers; p++) {
+                int from = p * slice;
+                int to = p == producers - 1 ? chargerIds.length : from + slice;
+                feeds.add(pool.submit(() -> {
+                    for (int i = from; i < to; i++) store.addReport(chargerIds[i], starts[i], ends[i], true);
+                    return null;
+                }));
+            }
+            for (Future<?> feed : feeds) feed.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public void runMain(String[] args) {
+        Main.run(args);
+    }
+}
@@ -0,0 +1,38 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/** Per-station uptime computation over already parsed data. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComputeBenchmark extends GeneratedInputState {
+
+    private UptimeOps.ParsedInput parsed;
+    private long[] stationIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void parseInput() throws Exception {
+        parsed = ops.parse(input.toString(), 1);
+        stationIds = parsed.stationIds();
+    }
+
+    /** One station per invocation, cycling through all stations. */
+    @Benchmark
+    public int computeStation() {
+        long stationId = stationIds[next];
+        next = next + 1 == stationIds.length ? 0 : next + 1;
+        return parsed.computeUptime(stationId);
+    }
+
+    @Benchmark
+    public void computeAllStations(Blackhole bh) {
+        for (long stationId : stationIds) bh.consume(parsed.computeUptime(stationId));
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import loadgen.SyntheticInputGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Shared benchmark state: a synthetic input file generated once per trial
+ * from the @Param values below.
+ */
+@State(Scope.Benchmark)
+public class GeneratedInputState {
+
+    @Param({"1000"})
+    public int stations;
+
+    @Param({"4"})
+    public int chargersPerStation;
+
+    @Param({"250"})
+    public int intervalsPerCharger;
+
+    @Param({"0.2"})
+    public double overlapRatio;
+
+    @Param({"small", "large"})
+    public String timestamps;
+
+    protected Path input;
+    protected UptimeOps ops;
+
+    @Setup(Level.Trial)
+    public void generateInput() throws IOException {
+        // Logging goes to the console without Main's file handler; keep it out of the numbers.
+        Logger.getLogger("").setLevel(java.util.logging.Level.OFF);
+        ops = UptimeOps.load();
+
+        SyntheticInputGenerator generator = new SyntheticInputGenerator();
+        generator.stations = stations;
+        generator.chargersPerStation = chargersPerStation;
+        generator.intervalsPerCharger = intervalsPerCharger;
+        generator.overlapRatio = overlapRatio;
+        generator.largeTimestamps = timestamps.equals("large");
+        input = Files.createTempFile("station-uptime-bench", ".txt");
+        generator.write(input);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteInput() throws IOException {
+        Files.deleteIfExists(input);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report ingestion into ConcurrentIntervalStore from several producer threads
+ * (one per regional feed); throughput should grow with `producers` up to the
+ * core count. Each invocation ingests the same reports into a fresh store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int producers;
+
+    @Param({"1000000"})
+    public int reports;
+
+    @Param({"10000"})
+    public int chargers;
+
+    private UptimeOps ops;
+    private long[] chargerIds;
+    private long[] starts;
+    private long[] ends;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        java.util.logging.Logger.getLogger("").setLevel(java.util.logging.Level.OFF);
+        ops = UptimeOps.load();
+        Random random = new Random(15);
+        chargerIds = new long[reports];
+        starts = new long[reports];
+        ends = new long[reports];
+        for (int i = 0; i < reports; i++) {
+            chargerIds[i] = random.nextInt(chargers);
+            starts[i] = (long) i * 10;
+            ends[i] = starts[i] + 1 + random.nextInt(20);
+        }
+    }
+
+    @Benchmark
+    public void ingest() throws Exception {
+        ops.ingestConcurrently(chargers, chargerIds, starts, ends, producers);
+    }
+}
@@ -0,0 +1,34 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/** The full Main path (arguments, parse, compute, print) with stdout discarded. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MainBenchmark extends GeneratedInputState {
+
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void discardOutput() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOutput() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void main() {
+        ops.runMain(new String[]{input.toString()});
+    }
+}
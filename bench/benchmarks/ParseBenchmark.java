@@ -0,0 +1,22 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** End-to-end parse of a generated input file. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark extends GeneratedInputState {
+
+    @Param({"1"})
+    public int parseThreads;
+
+    @Benchmark
+    public UptimeOps.ParsedInput parse() throws Exception {
+        return ops.parse(input.toString(), parseThreads);
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interval sort used by the merge step: radix vs comparison sort by input size
+ * and key magnitude, and the "auto" choice IntervalSort.sortByStart makes.
+ * Each invocation sorts a fresh copy of the same shuffled input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+    @Param({"64", "256", "4096", "65536", "1048576"})
+    public int size;
+
+    /** small: timestamps below 2^30 (high bytes constant); large: full unsigned 64-bit range. */
+    @Param({"small", "large"})
+    public String keys;
+
+    /** shuffled, or already sorted (per-charger feeds usually are). */
+    @Param({"shuffled", "sorted"})
+    public String order;
+
+    @Param({"auto", "radix", "comparison"})
+    public String algorithm;
+
+    private UptimeOps ops;
+    private long[] starts;
+    private long[] ends;
+    private long[] workStarts;
+    private long[] workEnds;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        ops = UptimeOps.load();
+        Random random = new Random(11);
+        starts = new long[size];
+        ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = keys.equals("large") ? random.nextLong() : random.nextInt(1 << 30);
+            ends[i] = starts[i] + 1 + random.nextInt(1000);
+        }
+        if (order.equals("sorted")) ops.sortIntervals("comparison", starts, ends);
+        workStarts = new long[size];
+        workEnds = new long[size];
+    }
+
+    @Setup(Level.Invocation)
+    public void copyInput() {
+        System.arraycopy(starts, 0, workStarts, 0, size);
+        System.arraycopy(ends, 0, workEnds, 0, size);
+    }
+
+    @Benchmark
+    public long[] sort() {
+        ops.sortIntervals(algorithm, workStarts, workEnds);
+        return workStarts;
+    }
+}
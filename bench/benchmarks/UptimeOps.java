@@ -0,0 +1,42 @@
+package benchmarks;
+
+/**
+ * Bridge to the application classes. They live in the unnamed package, which
+ * code in a named package (required by JMH) cannot reference directly; the
+ * implementation, UptimeOpsImpl, sits in the unnamed package and is loaded
+ * reflectively once per trial, outside the measured code.
+ */
+public interface UptimeOps {
+
+    /** Parses the input file with the given report-parsing parallelism. */
+    ParsedInput parse(String path, int parseThreads) throws Exception;
+
+    /** Runs Main on args (no logging setup). */
+    void runMain(String[] args);
+
+    /** Sorts starts (ends alongside) with "auto" (IntervalSort.sortByStart), "radix" or "comparison". */
+    void sortIntervals(String algorithm, long[] starts, long[] ends);
+
+    /**
+     * Validates and ingests report i (chargerIds[i], starts[i], ends[i], up) into a fresh
+     * ConcurrentIntervalStore from `producers` threads, each taking an equal slice.
+     * The stations are `chargers` chargers with IDs 0..chargers-1.
+     */
+    void ingestConcurrently(int chargers, long[] chargerIds, long[] starts, long[] ends, int producers)
+            throws Exception;
+
+    /** A parsed input ready for uptime computation. */
+    interface ParsedInput {
+        long[] stationIds();
+
+        int computeUptime(long stationId);
+    }
+
+    static UptimeOps load() {
+        try {
+            return (UptimeOps) Class.forName("UptimeOpsImpl").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("UptimeOpsImpl not on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package loadgen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates valid synthetic input files for benchmarks and load tests.
+ *
+ * Every charger gets a time-ordered run of reports. overlapRatio is the share
+ * of reports that overlap the previous report of the same charger (the rest
+ * leave a gap). With largeTimestamps the timeline sits just below 2^64 - 1.
+ */
+public class SyntheticInputGenerator {
+
+    public int stations = 1000;
+    public int chargersPerStation = 4;
+    public int intervalsPerCharger = 100;
+    public double overlapRatio = 0.2;
+    public double upRatio = 0.8;
+    public boolean largeTimestamps;
+    public long meanLength = 1000;
+    public long seed = 1;
+
+    /** Writes a complete input file ([Stations] and reports) to file. */
+    public void write(Path file) throws IOException {
+        Random random = new Random(seed);
+        long base = largeTimestamps ? -1L - maxSpan() - 1 : 0;
+
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("[Stations]\n");
+            for (int s = 0; s < stations; s++) {
+                out.write(Integer.toString(s));
+                for (int c = 0; c < chargersPerStation; c++) {
+                    out.write(' ');
+                    out.write(Long.toString(chargerId(s, c)));
+                }
+                out.write('\n');
+            }
+
+            out.write("[Charger Availability Reports]\n");
+            StringBuilder line = new StringBuilder(64);
+            for (int s = 0; s < stations; s++) {
+                for (int c = 0; c < chargersPerStation; c++) {
+                    long prevStart = base + (long) (random.nextDouble() * meanLength);
+                    long prevEnd = prevStart;
+                    for (int i = 0; i < intervalsPerCharger; i++) {
+                        long length = 1 + (long) (random.nextDouble() * 2 * meanLength);
+                        long start;
+                        if (i > 0 && random.nextDouble() < overlapRatio) {
+                            start = prevStart + (long) (random.nextDouble() * (prevEnd - prevStart));
+                        } else {
+                            start = prevEnd + (long) (random.nextDouble() * meanLength / 2);
+                        }
+                        long end = start + length;
+                        boolean up = random.nextDouble() < upRatio;
+
+                        line.setLength(0);
+                        line.append(chargerId(s, c)).append(' ')
+                                .append(Long.toUnsignedString(start)).append(' ')
+                                .append(Long.toUnsignedString(end)).append(' ')
+                                .append(up).append('\n');
+                        out.append(line);
+
+                        prevStart = start;
+                        prevEnd = Math.max(prevEnd, end);
+                    }
+                }
+            }
+        }
+    }
+
+    private long chargerId(int station, int charger) {
+        return (long) station * chargersPerStation + charger;
+    }
+
+    /** Upper bound of one charger's timeline length. */
+    private long maxSpan() {
+        return (long) (intervalsPerCharger + 1) * (3 * meanLength);
+    }
+
+    /**
+     * Usage: SyntheticInputGenerator out.txt [stations] [chargersPerStation]
+     * [intervalsPerCharger] [overlapRatio] [small|large] [seed]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SyntheticInputGenerator <out> [stations] [chargersPerStation] "
+                    + "[intervalsPerCharger] [overlapRatio] [small|large] [seed]");
+            System.exit(2);
+        }
+        SyntheticInputGenerator generator = new SyntheticInputGenerator();
+        if (args.length > 1) generator.stations = Integer.parseInt(args[1]);
+        if (args.length > 2) generator.chargersPerStation = Integer.parseInt(args[2]);
+        if (args.length > 3) generator.intervalsPerCharger = Integer.parseInt(args[3]);
+        if (args.length > 4) generator.overlapRatio = Double.parseDouble(args[4]);
+        if (args.length > 5) generator.largeTimestamps = args[5].equals("large");
+        if (args.length > 6) generator.seed = Long.parseLong(args[6]);
+        generator.write(Path.of(args[0]));
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Moves log output off the parsing and compute threads: publish only enqueues
+ * the record into a bounded buffer, and a background writer hands batches of
+ * records to the wrapped handler (e.g. a FileHandler), flushing once per batch.
+ *
+ * Records are formatted by the wrapped handler on the writer thread, so
+ * parameterized messages ("... {0}") are only formatted when written. When the
+ * buffer is full, publish waits for space rather than dropping records; if the
+ * caller is interrupted while waiting, the record is written synchronously
+ * (possibly ahead of buffered ones) and the interrupt is kept. SEVERE
+ * records are written before publish returns, so errors reach the file even
+ * if the process dies right after.
+ */
+final class AsyncLogHandler extends Handler {
+
+    static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 512;
+
+    private final Handler target;
+    private final BlockingQueue<LogRecord> queue;
+    private final Thread writer;
+    private final Object progress = new Object();
+    private long enqueued; // guarded by progress
+    private long written;  // guarded by progress
+    private volatile boolean closed;
+
+    AsyncLogHandler(Handler target) {
+        this(target, DEFAULT_CAPACITY);
+    }
+
+    AsyncLogHandler(Handler target, int capacity) {
+        this.target = target;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        setLevel(target.getLevel());
+        writer = new Thread(this::drainLoop, "async-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) return;
+        // Caller inference walks the stack, so it has to happen on the logging thread.
+        record.getSourceClassName();
+        long ticket = 0;
+        boolean interrupted = false;
+        synchronized (progress) {
+            // Tickets follow queue order, so "written >= ticket" means this record is out.
+            while (!queue.offer(record)) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    break;
+                }
+            }
+            if (!interrupted) ticket = ++enqueued;
+        }
+        if (interrupted) {
+            write(record);
+            target.flush();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (record.getLevel().intValue() >= Level.SEVERE.intValue()) awaitWritten(ticket);
+    }
+
+    /** Waits until everything published so far has been written and flushed. */
+    @Override
+    public void flush() {
+        long ticket;
+        synchronized (progress) {
+            ticket = enqueued;
+        }
+        awaitWritten(ticket);
+    }
+
+    /** Drains the buffer, stops the writer and closes the wrapped handler. */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        flush();
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<LogRecord> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (LogRecord record : rest) target.publish(record);
+        target.close();
+    }
+
+    private void drainLoop() {
+        List<LogRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // re-check closed
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            for (LogRecord record : batch) write(record);
+            target.flush();
+            markWritten(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void write(LogRecord record) {
+        try {
+            target.publish(record);
+        } catch (RuntimeException e) {
+            reportError("Could not write log record", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    private void markWritten(int count) {
+        synchronized (progress) {
+            written += count;
+            progress.notifyAll();
+        }
+    }
+
+    private void awaitWritten(long ticket) {
+        synchronized (progress) {
+            while (written < ticket && !closed) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a byte stream into lines without decoding them into Strings.
+ * Like BufferedReader.readLine, a line ends at '\n', '\r' or "\r\n"
+ * (the latter simply yields an extra empty line, which callers skip).
+ * The current line is exposed as the range [lineStart, lineEnd) of buffer().
+ * The source is either an InputStream or a (memory-mapped) ByteBuffer.
+ */
+final class ByteLineReader {
+
+    private final InputStream in;
+    private final ByteBuffer source;
+    private byte[] buf;
+    private long discarded;
+    private int pos;
+    private int limit;
+    private int lineStart;
+    private int lineEnd;
+    private boolean eof;
+
+    ByteLineReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.source = null;
+        this.buf = new byte[bufferSize];
+    }
+
+    ByteLineReader(ByteBuffer source, int bufferSize) {
+        this.in = null;
+        this.source = source;
+        this.buf = new byte[bufferSize];
+    }
+
+    /** Advances to the next line; returns false at end of input. */
+    boolean next() throws IOException {
+        int scan = pos;
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                byte c = buf[i];
+                if (c == '\n' || c == '\r') {
+                    lineStart = pos;
+                    lineEnd = i;
+                    pos = i + 1;
+                    return true;
+                }
+            }
+            if (eof) {
+                if (pos == limit) return false;
+                lineStart = pos;
+                lineEnd = limit;
+                pos = limit;
+                return true;
+            }
+            scan = limit - pos;
+            fill();
+        }
+    }
+
+    /** Moves the unread tail to the front (growing for very long lines) and reads more bytes. */
+    private void fill() throws IOException {
+        int remaining = limit - pos;
+        if (remaining == buf.length) {
+            byte[] grown = new byte[buf.length * 2];
+            System.arraycopy(buf, pos, grown, 0, remaining);
+            buf = grown;
+        } else if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, remaining);
+        }
+        discarded += pos;
+        pos = 0;
+        limit = remaining;
+        int n = read(buf, limit, buf.length - limit);
+        if (n < 0) eof = true;
+        else limit += n;
+    }
+
+    private int read(byte[] b, int off, int len) throws IOException {
+        if (in != null) return in.read(b, off, len);
+        if (!source.hasRemaining()) return -1;
+        int n = Math.min(len, source.remaining());
+        source.get(b, off, n);
+        return n;
+    }
+
+    /** Offset (from the start of the source) of the first byte after the current line. */
+    long position() {
+        return discarded + pos;
+    }
+
+    /** Offset (from the start of the source) of the current line's first byte. */
+    long lineOffset() {
+        return discarded + lineStart;
+    }
+
+    byte[] buffer() {
+        return buf;
+    }
+
+    int lineStart() {
+        return lineStart;
+    }
+
+    int lineEnd() {
+        return lineEnd;
+    }
+}
@@ -0,0 +1,165 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-charger analytics of one station, computed in the same sweep as the
+ * station's uptime: all of the station's intervals (up and down) are k-way
+ * merged in start order once, feeding both the station-wide up union and
+ * every charger's own state.
+ *
+ * Per charger (over its own reporting span, first start to last end):
+ *   uptime          floor(up-covered time * 100 / span), like the station figure
+ *   largest outage  longest stretch of the span not covered by an up report
+ *   unreported gaps number of stretches of the span covered by no report at all
+ */
+final class ChargerAnalytics {
+
+    final long[] chargerIds;
+    /** Number of reports per charger; 0 means the other figures are 0 as well. */
+    final int[] reports;
+    final int[] uptime;
+    /** Unsigned length of time. */
+    final long[] largestOutage;
+    /** Number of gaps; below the charger's report count, so it fits an int like reports. */
+    final int[] unreportedGaps;
+
+    private long span;
+    private long available;
+    private boolean hasReports;
+
+    private ChargerAnalytics(int k) {
+        chargerIds = new long[k];
+        reports = new int[k];
+        uptime = new int[k];
+        largestOutage = new long[k];
+        unreportedGaps = new int[k];
+    }
+
+    /** Station reporting span (unsigned), as StationUptime computes it. */
+    long span() {
+        return span;
+    }
+
+    /** Station up-covered time (unsigned), as StationUptime computes it. */
+    long available() {
+        return available;
+    }
+
+    boolean hasReports() {
+        return hasReports;
+    }
+
+    /**
+     * One pass over the intervals of the station with the given ordinal in stations;
+     * unsorted charger runs are sorted first.
+     */
+    static ChargerAnalytics sweep(StationTable stations, int station, IntervalStore store) {
+        int from = stations.chargerFrom(station);
+        int k = stations.chargerTo(station) - from;
+        ChargerAnalytics result = new ChargerAnalytics(k);
+        List<IntervalColumns> runs = new ArrayList<>(k);
+        int[] chargerOfRun = new int[k];
+        long minStart = -1; // unsigned max
+        long maxEnd = 0;
+        for (int c = 0; c < k; c++) {
+            result.chargerIds[c] = stations.chargerId(from + c);
+            IntervalColumns columns = store.columns(from + c);
+            if (columns == null || columns.size() == 0) continue;
+            result.reports[c] = columns.size();
+            if (Long.compareUnsigned(columns.minStart(), minStart) < 0) minStart = columns.minStart();
+            if (Long.compareUnsigned(columns.maxEnd(), maxEnd) > 0) maxEnd = columns.maxEnd();
+            chargerOfRun[runs.size()] = c;
+            runs.add(columns.sortedByStart());
+        }
+        if (runs.isEmpty()) return result;
+        result.hasReports = true;
+        result.span = maxEnd - minStart;
+
+        int n = runs.size();
+        long[] first = new long[n];   // charger span start: its first start in sorted order
+        long[] last = new long[n];    // end of everything reported so far
+        long[] upStart = new long[n]; // current merged up block
+        long[] upEnd = new long[n];
+        long[] upTotal = new long[n];
+        boolean[] started = new boolean[n];
+        boolean[] hasUp = new boolean[n];
+        long[] outage = new long[n];
+        int[] gaps = new int[n];
+        MergedIntervals.Union stationUp = new MergedIntervals.Union();
+
+        RunMerger merger = new RunMerger(runs, false);
+        while (merger.next()) {
+            int r = merger.run;
+            long s = merger.start;
+            long e = merger.end;
+            if (!started[r]) {
+                started[r] = true;
+                first[r] = s;
+                last[r] = e;
+            } else {
+                if (Long.compareUnsigned(s, last[r]) > 0) gaps[r]++;
+                if (Long.compareUnsigned(e, last[r]) > 0) last[r] = e;
+            }
+            if (!merger.up) continue;
+
+            stationUp.add(s, e);
+            if (!hasUp[r]) {
+                hasUp[r] = true;
+                outage[r] = s - first[r];
+                upStart[r] = s;
+                upEnd[r] = e;
+            } else if (Long.compareUnsigned(s, upEnd[r]) > 0) {
+                upTotal[r] += upEnd[r] - upStart[r];
+                outage[r] = maxUnsigned(outage[r], s - upEnd[r]);
+                upStart[r] = s;
+                upEnd[r] = e;
+            } else if (Long.compareUnsigned(e, upEnd[r]) > 0) {
+                upEnd[r] = e;
+            }
+        }
+        result.available = stationUp.length();
+
+        for (int r = 0; r < n; r++) {
+            int c = chargerOfRun[r];
+            long chargerSpan = last[r] - first[r];
+            if (hasUp[r]) {
+                upTotal[r] += upEnd[r] - upStart[r];
+                outage[r] = maxUnsigned(outage[r], last[r] - upEnd[r]);
+            } else {
+                outage[r] = chargerSpan;
+            }
+            result.uptime[c] = (int) Math.min(100, StationUptime.percent(upTotal[r], chargerSpan));
+            result.largestOutage[c] = outage[r];
+            result.unreportedGaps[c] = gaps[r];
+        }
+        return result;
+    }
+
+    private static long maxUnsigned(long a, long b) {
+        return Long.compareUnsigned(a, b) >= 0 ? a : b;
+    }
+
+    /**
+     * Writes one CSV row per charger, stations in the given order and chargers in definition order:
+     * station_id,charger_id,reports,uptime_percent,largest_outage,unreported_gaps.
+     * Stations without an entry (no chargers) are skipped.
+     */
+    static void writeCsv(Path path, long[] stationIds, ChargerAnalytics[] results) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            out.write("station_id,charger_id,reports,uptime_percent,largest_outage,unreported_gaps\n");
+            for (int i = 0; i < stationIds.length; i++) {
+                ChargerAnalytics a = results[i];
+                if (a == null) continue;
+                for (int c = 0; c < a.chargerIds.length; c++) {
+                    out.write(stationIds[i] + "," + a.chargerIds[c] + "," + a.reports[c] + "," + a.uptime[c] + ","
+                            + Long.toUnsignedString(a.largestOutage[c]) + "," + a.unreportedGaps[c] + "\n");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parsed command line: zero or more --name=value (or bare --name) options
+ * followed by exactly one input path.
+ */
+final class CommandLine {
+
+    final String inputPath;
+    private final Map<String, String> options;
+
+    private CommandLine(String inputPath, Map<String, String> options) {
+        this.inputPath = inputPath;
+        this.options = options;
+    }
+
+    /** Parses args; throws IllegalArgumentException on unknown options or a wrong number of paths. */
+    static CommandLine parse(String[] args, Set<String> knownOptions) {
+        Map<String, String> options = new HashMap<>();
+        String path = null;
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                String name = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+                if (!knownOptions.contains(name)) {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+                options.put(name, eq < 0 ? "" : arg.substring(eq + 1));
+            } else if (path == null) {
+                path = arg;
+            } else {
+                throw new IllegalArgumentException("Expected exactly one input path.");
+            }
+        }
+        if (path == null) throw new IllegalArgumentException("Expected exactly one input path.");
+        return new CommandLine(path, options);
+    }
+
+    boolean has(String name) {
+        return options.containsKey(name);
+    }
+
+    String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /** Integer option that must be at least 1. */
+    int positiveInt(String name, int defaultValue) {
+        return intAtLeast(name, defaultValue, 1);
+    }
+
+    /** Integer option that must be at least 0. */
+    int nonNegativeInt(String name, int defaultValue) {
+        return intAtLeast(name, defaultValue, 0);
+    }
+
+    private int intAtLeast(String name, int defaultValue, int min) {
+        String value = options.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int v = Integer.parseInt(value);
+            if (v < min) throw new IllegalArgumentException("--" + name + " must be at least " + min + ": " + value);
+            return v;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " is not a valid number: " + value);
+        }
+    }
+}
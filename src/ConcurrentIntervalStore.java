@@ -0,0 +1,92 @@
+/**
+ * Per-charger interval storage that several producers (e.g. one per regional
+ * feed) can append to at the same time.
+ *
+ * The chargers are fixed by the parser's station table, so each one has a slot
+ * in an array indexed by its charger ordinal and no map is involved. Slots are
+ * spread over lock stripes, so producers only contend when their chargers share
+ * a stripe. Reports are validated with the parser's rules (unknown charger,
+ * start >= end) before any lock is taken. Reports of one charger from different
+ * producers are interleaved in arrival order. Once the producers are done, the
+ * columns are moved into an IntervalStore for computation.
+ */
+public class ConcurrentIntervalStore implements ReportSink {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final InputParsingValidation parser;
+    private final IntervalColumns[] byCharger;
+    private final Object[] stripes;
+    private final int mask;
+
+    /** Creates a store for the chargers of the parser's stations, which must already be loaded. */
+    public ConcurrentIntervalStore(InputParsingValidation parser) {
+        this(parser, DEFAULT_STRIPES);
+    }
+
+    /** Uses the given number of lock stripes, rounded up to a power of two. */
+    ConcurrentIntervalStore(InputParsingValidation parser, int stripeCount) {
+        if (stripeCount < 1) throw new IllegalArgumentException("Stripe count must be at least 1: " + stripeCount);
+        this.parser = parser;
+        this.byCharger = new IntervalColumns[parser.stationToChargers.chargerCount()];
+        int n = Integer.highestOneBit(stripeCount);
+        if (n < stripeCount) n <<= 1;
+        stripes = new Object[n];
+        for (int i = 0; i < n; i++) stripes[i] = new Object();
+        mask = n - 1;
+    }
+
+    /** Validates and appends interval [start, end) (unsigned) for the charger; thread-safe. */
+    public void addReport(long chargerId, long start, long end, boolean up) throws InputFormatException {
+        add(parser.validateReport(chargerId, start, end), chargerId, start, end, up);
+    }
+
+    /** Appends an already validated report; thread-safe. */
+    @Override
+    public void add(long chargerId, long start, long end, boolean up) {
+        add(ordinal(chargerId), chargerId, start, end, up);
+    }
+
+    /** Appends an already validated report of the charger with the given ordinal (the parser's entry point). */
+    @Override
+    public void add(int c, long chargerId, long start, long end, boolean up) {
+        synchronized (stripes[c & mask]) {
+            IntervalColumns columns = byCharger[c];
+            if (columns == null) byCharger[c] = columns = new IntervalColumns();
+            columns.add(start, end, up);
+        }
+    }
+
+    /** Number of intervals stored for the charger so far. */
+    public int size(long chargerId) {
+        int c = parser.stationToChargers.chargerOrdinal(chargerId);
+        if (c < 0) return 0;
+        synchronized (stripes[c & mask]) {
+            IntervalColumns columns = byCharger[c];
+            return columns == null ? 0 : columns.size();
+        }
+    }
+
+    /**
+     * Moves every charger's intervals into target, after the ones it already holds,
+     * and empties this store. Producers must have finished.
+     */
+    public void drainInto(IntervalStore target) {
+        IntervalStore drained = new IntervalStore(parser.stationToChargers);
+        for (int c = 0; c < byCharger.length; c++) {
+            synchronized (stripes[c & mask]) {
+                if (byCharger[c] != null) drained.set(c, byCharger[c]);
+                byCharger[c] = null;
+            }
+        }
+        target.addAll(drained);
+    }
+
+    private int ordinal(long chargerId) {
+        int c = parser.stationToChargers.chargerOrdinal(chargerId);
+        if (c < 0 || c >= byCharger.length) {
+            throw new IllegalArgumentException("Charger is not defined by the store's stations: " + chargerId);
+        }
+        return c;
+    }
+}
@@ -0,0 +1,329 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Out-of-core uptime computation for report sections that do not fit in the heap.
+ *
+ * Spill pass: validated reports are buffered as (station, start, end, up) records
+ * until the memory budget is used up, sorted by (station, start) and written to a
+ * temporary run file. Merge pass: the runs are k-way merged (in several passes if
+ * there are more runs than the budget allows open at once), so each station's
+ * records arrive in start order and stream through the same union logic as
+ * StationUptime. Only the station tables and the sort buffer stay in memory.
+ */
+final class ExternalUptime implements ReportSink {
+
+    private static final Logger logger = Logger.getLogger(ExternalUptime.class.getName());
+    /** Heap bytes per buffered record: the record columns plus sort keys and radix scratch. */
+    private static final int BYTES_PER_BUFFERED_RECORD = 64;
+    private static final int MIN_BUFFERED_RECORDS = 64;
+    private static final int IO_BUFFER_SIZE = 1 << 13;
+    private static final int MAX_FAN_IN = 64;
+
+    private final InputParsingValidation parser;
+    private final Path tempDir;
+    private final int capacity;
+    private final int fanIn;
+
+    // Built once the stations are parsed; records refer to stations by index into sortedStations.
+    private long[] sortedStations;
+    // Index into sortedStations by the station table's charger ordinal.
+    private int[] chargerToStation;
+
+    private int[] stations = new int[MIN_BUFFERED_RECORDS];
+    private long[] starts = new long[MIN_BUFFERED_RECORDS];
+    private long[] ends = new long[MIN_BUFFERED_RECORDS];
+    private boolean[] ups = new boolean[MIN_BUFFERED_RECORDS];
+    private int size;
+
+    private final List<Run> runs = new ArrayList<>();
+    private int runCounter;
+
+    ExternalUptime(InputParsingValidation parser, long memoryBudgetBytes, Path tempDir) {
+        if (memoryBudgetBytes < 1) throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudgetBytes);
+        this.parser = parser;
+        this.tempDir = tempDir;
+        this.capacity = (int) Math.max(MIN_BUFFERED_RECORDS,
+                Math.min(Integer.MAX_VALUE - 8, memoryBudgetBytes / BYTES_PER_BUFFERED_RECORD));
+        this.fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudgetBytes / (2L * IO_BUFFER_SIZE)));
+    }
+
+    /**
+     * Parses path and prints every station's uptime exactly like StationUptime.computeAndPrint,
+     * keeping roughly memoryBudgetBytes of report data in memory. Temporary runs go to a fresh
+     * directory under java.io.tmpdir and are deleted afterwards.
+     */
+    static void computeAndPrint(String path, long memoryBudgetBytes, UptimeWriter.Format format)
+            throws InputFormatException, IOException {
+        Path tempDir = Files.createTempDirectory("station-uptime-");
+        try {
+            InputParsingValidation parser = new InputParsingValidation();
+            ExternalUptime external = new ExternalUptime(parser, memoryBudgetBytes, tempDir);
+            parser.parse(path, external);
+            external.computeAndPrint(format);
+        } finally {
+            deleteTree(tempDir);
+        }
+    }
+
+    @Override
+    public void add(long chargerId, long start, long end, boolean up) throws IOException {
+        add(parser.stationToChargers.chargerOrdinal(chargerId), chargerId, start, end, up);
+    }
+
+    @Override
+    public void add(int charger, long chargerId, long start, long end, boolean up) throws IOException {
+        if (chargerToStation == null) indexStations();
+        if (size == stations.length) {
+            if (size == capacity) spill();
+            else grow();
+        }
+        stations[size] = chargerToStation[charger];
+        starts[size] = start;
+        ends[size] = end;
+        ups[size] = up;
+        size++;
+    }
+
+    /** Merges the spilled runs and prints one result per station in ascending station-ID order. */
+    void computeAndPrint(UptimeWriter.Format format) throws IOException {
+        logger.info("Starting uptime computation for all stations.");
+        if (chargerToStation == null) indexStations();
+        if (size > 0) spill();
+
+        int[] uptimes = new int[sortedStations.length];
+        StationAccumulator accumulator = new StationAccumulator(uptimes);
+        mergeAll(accumulator);
+        accumulator.finish();
+
+        try (UptimeWriter out = UptimeWriter.toStdout(format)) {
+            for (int i = 0; i < sortedStations.length; i++) {
+                if (!accumulator.seen[i]) uptimes[i] = uptimeWithoutReports(sortedStations[i]);
+                out.write(sortedStations[i], uptimes[i]);
+                if (logger.isLoggable(Level.INFO)) {
+                    logger.log(Level.INFO, "Computed uptime for station {0,number,#}: {1,number,#}%",
+                            new Object[]{sortedStations[i], uptimes[i]});
+                }
+            }
+        }
+        logger.info("Completed uptime computation.");
+    }
+
+    /** Number of run files spilled so far, including intermediate merge outputs. */
+    int runsWritten() {
+        return runCounter;
+    }
+
+    private void indexStations() {
+        sortedStations = parser.stationToChargers.stationIds();
+        chargerToStation = new int[parser.stationToChargers.chargerCount()];
+        StationTable table = parser.stationToChargers;
+        for (int s = 0; s < sortedStations.length; s++) {
+            int station = table.stationOrdinal(sortedStations[s]);
+            Arrays.fill(chargerToStation, table.chargerFrom(station), table.chargerTo(station), s);
+        }
+    }
+
+    private void grow() {
+        int newLength = (int) Math.min(capacity, (long) stations.length + (stations.length >> 1));
+        stations = Arrays.copyOf(stations, newLength);
+        starts = Arrays.copyOf(starts, newLength);
+        ends = Arrays.copyOf(ends, newLength);
+        ups = Arrays.copyOf(ups, newLength);
+    }
+
+    /** Sorts the buffered records by (station, start) and writes them out as one run. */
+    private void spill() throws IOException {
+        // Two stable LSD passes over a permutation: by start, then by station.
+        long[] keys = Arrays.copyOf(starts, size);
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        IntervalSort.radixSort(keys, order, size);
+        for (int i = 0; i < size; i++) keys[i] = stations[(int) order[i]];
+        IntervalSort.radixSort(keys, order, size);
+
+        try (RunWriter out = newRun()) {
+            for (int i = 0; i < size; i++) {
+                int r = (int) order[i];
+                out.write(stations[r], starts[r], ends[r], ups[r]);
+            }
+        }
+        logger.info("Spilled run " + runs.get(runs.size() - 1).path.getFileName() + " with " + size + " records.");
+        size = 0;
+    }
+
+    /** Merges runs fanIn at a time until one pass can feed them all to sink. */
+    private void mergeAll(RecordSink sink) throws IOException {
+        while (runs.size() > fanIn) {
+            List<Run> group = new ArrayList<>(runs.subList(0, fanIn));
+            runs.subList(0, fanIn).clear();
+            try (RunWriter out = newRun()) {
+                merge(group, out::write);
+            }
+            for (Run run : group) Files.delete(run.path);
+            logger.info("Merged " + group.size() + " runs; " + runs.size() + " remaining.");
+        }
+        merge(runs, sink);
+    }
+
+    /** K-way merge of runs in (station, start) order. */
+    private static void merge(List<Run> inputs, RecordSink sink) throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<>(Math.max(1, inputs.size()), RunReader.ORDER);
+        List<RunReader> readers = new ArrayList<>(inputs.size());
+        try {
+            for (Run run : inputs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next()) heap.add(reader);
+            }
+            while (!heap.isEmpty()) {
+                RunReader reader = heap.poll();
+                sink.accept(reader.station, reader.start, reader.end, reader.up);
+                if (reader.next()) heap.add(reader);
+            }
+        } finally {
+            for (RunReader reader : readers) reader.close();
+        }
+    }
+
+    private RunWriter newRun() throws IOException {
+        Run run = new Run(tempDir.resolve("run-" + (runCounter++) + ".bin"));
+        runs.add(run);
+        return new RunWriter(run);
+    }
+
+    /** Same warnings and result as StationUptime.computeUptime for a station without reports. */
+    private int uptimeWithoutReports(long stationId) {
+        StationTable table = parser.stationToChargers;
+        int station = table.stationOrdinal(stationId);
+        if (station < 0 || table.chargerFrom(station) == table.chargerTo(station)) {
+            logger.log(Level.WARNING, "Station {0,number,#} has no chargers defined. Returning uptime 0.", stationId);
+        } else {
+            logger.log(Level.WARNING, "Station {0,number,#} has chargers but no availability data. Returning uptime 0.", stationId);
+        }
+        return 0;
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (var paths = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) paths::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @FunctionalInterface
+    private interface RecordSink {
+        void accept(int station, long start, long end, boolean up) throws IOException;
+    }
+
+    /** Folds each station's start-ordered records into its reporting span and up-time union. */
+    private final class StationAccumulator implements RecordSink {
+        private final int[] uptimes;
+        private final boolean[] seen;
+        private int station = -1;
+        private long minStart;
+        private long maxEnd;
+        private MergedIntervals.Union union;
+
+        StationAccumulator(int[] uptimes) {
+            this.uptimes = uptimes;
+            this.seen = new boolean[uptimes.length];
+        }
+
+        @Override
+        public void accept(int s, long start, long end, boolean up) {
+            if (s != station) {
+                finish();
+                station = s;
+                minStart = start; // records arrive in start order
+                maxEnd = end;
+                union = new MergedIntervals.Union();
+            }
+            if (Long.compareUnsigned(end, maxEnd) > 0) maxEnd = end;
+            if (up) union.add(start, end);
+        }
+
+        void finish() {
+            if (station < 0) return;
+            seen[station] = true;
+            uptimes[station] = StationUptime.uptimePercent(sortedStations[station], maxEnd - minStart, union.length());
+        }
+    }
+
+    /** A spilled run file: records sorted by (station, start). */
+    private static final class Run {
+        final Path path;
+        long records;
+
+        Run(Path path) {
+            this.path = path;
+        }
+    }
+
+    /** Writes fixed-size records: int station, long start, long end, byte up. */
+    private static final class RunWriter implements AutoCloseable {
+        private final Run run;
+        private final DataOutputStream out;
+
+        RunWriter(Run run) throws IOException {
+            this.run = run;
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run.path), IO_BUFFER_SIZE));
+        }
+
+        void write(int station, long start, long end, boolean up) throws IOException {
+            out.writeInt(station);
+            out.writeLong(start);
+            out.writeLong(end);
+            out.writeByte(up ? 1 : 0);
+            run.records++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** Sequential cursor over one run. */
+    private static final class RunReader implements AutoCloseable {
+        static final Comparator<RunReader> ORDER = (a, b) -> {
+            int c = Integer.compare(a.station, b.station);
+            return c != 0 ? c : Long.compareUnsigned(a.start, b.start);
+        };
+
+        private final DataInputStream in;
+        private long remaining;
+        int station;
+        long start;
+        long end;
+        boolean up;
+
+        RunReader(Run run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.path), IO_BUFFER_SIZE));
+            this.remaining = run.records;
+        }
+
+        boolean next() throws IOException {
+            if (remaining == 0) return false;
+            station = in.readInt();
+            start = in.readLong();
+            end = in.readLong();
+            up = in.readByte() != 0;
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+/**
+ * Open-addressing index from unsigned 32-bit IDs to dense ordinals 0..size()-1,
+ * assigned in insertion order. Keys are stored as ints and looked up with
+ * linear probing, so neither lookups nor inserts box. Values outside the
+ * unsigned 32-bit range are never present: get returns -1 for them instead of
+ * matching the ID with the same low 32 bits.
+ */
+final class IdIndex {
+
+    // slots[h] is ordinal + 1 of the ID hashed there, 0 if empty; at most half full.
+    private int[] slots = new int[16];
+    private int[] ids = new int[8];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    static boolean inRange(long id) {
+        return id >= 0 && id <= 0xFFFFFFFFL;
+    }
+
+    /** Ordinal of id, or -1 if it was never added. */
+    int get(long id) {
+        if (!inRange(id)) return -1;
+        int key = (int) id;
+        int mask = slots.length - 1;
+        for (int h = hash(key) & mask; ; h = (h + 1) & mask) {
+            int slot = slots[h];
+            if (slot == 0) return -1;
+            if (ids[slot - 1] == key) return slot - 1;
+        }
+    }
+
+    /** Adds id and returns its new ordinal, or -1 if it is already present. */
+    int add(long id) {
+        if (!inRange(id)) throw new IllegalArgumentException("ID is not an unsigned 32-bit value: " + id);
+        if (get(id) >= 0) return -1;
+        if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+        if (2 * (size + 1) > slots.length) rehash(slots.length * 2);
+        ids[size] = (int) id;
+        insert(size);
+        return size++;
+    }
+
+    /** The ID with the given ordinal. */
+    long id(int ordinal) {
+        return Integer.toUnsignedLong(ids[ordinal]);
+    }
+
+    private void insert(int ordinal) {
+        int mask = slots.length - 1;
+        int h = hash(ids[ordinal]) & mask;
+        while (slots[h] != 0) h = (h + 1) & mask;
+        slots[h] = ordinal + 1;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int i = 0; i < size; i++) insert(i);
+    }
+
+    /** Fibonacci hashing; sequential IDs spread over the whole table. */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
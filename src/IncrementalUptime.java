@@ -0,0 +1,120 @@
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incremental uptime engine: accepts availability reports one at a time and
+ * keeps every station's result current, instead of re-running parse and
+ * computeAndPrint over the whole history.
+ *
+ * Per station it maintains the disjoint up-intervals in a sorted map together
+ * with their total length, plus the running min-start/max-end reporting span.
+ * addReport is amortized O(log n) in the station's number of disjoint
+ * up-intervals; uptime is O(1). Results equal StationUptime.computeUptime on
+ * the same reports. Not thread-safe.
+ */
+public class IncrementalUptime {
+
+    private final StationTable table;
+    // By station ordinal in the table; stations added to the table later are unknown here.
+    private final StationState[] stations;
+
+    /** Creates an engine without reports for the stations currently in the table. */
+    public IncrementalUptime(StationTable stationToChargers) {
+        this.table = stationToChargers;
+        this.stations = new StationState[stationToChargers.size()];
+        for (int s = 0; s < stations.length; s++) stations[s] = new StationState();
+    }
+
+    /** Creates an engine seeded with everything the parser has read. */
+    public static IncrementalUptime from(InputParsingValidation parser) {
+        IncrementalUptime engine = new IncrementalUptime(parser.stationToChargers);
+        StationTable table = parser.stationToChargers;
+        for (long stationId : table.stationIds()) {
+            StationState state = engine.state(stationId);
+            int station = table.stationOrdinal(stationId);
+            for (int c = table.chargerFrom(station); c < table.chargerTo(station); c++) {
+                IntervalColumns columns = parser.chargerReports.columns(c);
+                if (columns == null) continue;
+                for (int i = 0; i < columns.size(); i++) {
+                    state.add(columns.start(i), columns.end(i), columns.isUp(i));
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Adds one report [start, end) (unsigned 64-bit times) for a charger.
+     * Applies the same validation as the parser: the charger must be defined
+     * and start must be less than end.
+     */
+    public void addReport(long chargerId, long start, long end, boolean up) throws InputFormatException {
+        long stationId = stationOf(chargerId);
+        if (stationId < 0) {
+            throw new InputFormatException("Report Charger ID not found in station definitions: " + chargerId);
+        }
+        if (Long.compareUnsigned(start, end) >= 0) {
+            throw new InputFormatException("Start time must be less than end time.");
+        }
+        state(stationId).add(start, end, up);
+    }
+
+    /** Station the charger belongs to, or -1 if the charger is not defined. */
+    long stationOf(long chargerId) {
+        long stationId = table.stationOf(chargerId);
+        return stationId < 0 || table.stationOrdinal(stationId) >= stations.length ? -1 : stationId;
+    }
+
+    private StationState state(long stationId) {
+        int s = table.stationOrdinal(stationId);
+        return s < 0 || s >= stations.length ? null : stations[s];
+    }
+
+    /** Current uptime % of the station; 0 for unknown stations or stations without reports. */
+    public int uptime(long stationId) {
+        StationState state = state(stationId);
+        if (state == null || !state.hasReports) return 0;
+        long reporting = state.maxEnd - state.minStart;
+        if (reporting == 0) return 0;
+        return (int) Math.min(100, StationUptime.percent(state.covered, reporting));
+    }
+
+    /** Maintained per-station state. */
+    private static final class StationState {
+        // start -> end of disjoint up-intervals, in unsigned start order
+        private final TreeMap<Long, Long> up = new TreeMap<>(Long::compareUnsigned);
+        private long covered;
+        private long minStart = -1; // unsigned max
+        private long maxEnd;
+        private boolean hasReports;
+
+        void add(long start, long end, boolean isUp) {
+            hasReports = true;
+            if (Long.compareUnsigned(start, minStart) < 0) minStart = start;
+            if (Long.compareUnsigned(end, maxEnd) > 0) maxEnd = end;
+            if (isUp) addUp(start, end);
+        }
+
+        /** Unions [start, end) into the disjoint set, absorbing every interval it touches. */
+        private void addUp(long start, long end) {
+            Map.Entry<Long, Long> before = up.floorEntry(start);
+            if (before != null && Long.compareUnsigned(before.getValue(), start) >= 0) {
+                if (Long.compareUnsigned(before.getValue(), end) >= 0) return; // already covered
+                start = before.getKey();
+                covered -= before.getValue() - before.getKey();
+                up.remove(before.getKey());
+            }
+
+            Map.Entry<Long, Long> next = up.ceilingEntry(start);
+            while (next != null && Long.compareUnsigned(next.getKey(), end) <= 0) {
+                if (Long.compareUnsigned(next.getValue(), end) > 0) end = next.getValue();
+                covered -= next.getValue() - next.getKey();
+                up.remove(next.getKey());
+                next = up.higherEntry(next.getKey());
+            }
+
+            up.put(start, end);
+            covered += end - start;
+        }
+    }
+}
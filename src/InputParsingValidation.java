@@ -1,8 +1,10 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.*;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.math.BigInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -11,128 +13,298 @@ import java.util.logging.Logger;
 public class InputParsingValidation {
 
     private static final Logger logger = Logger.getLogger(InputParsingValidation.class.getName());
-    private final Set<Long> chargers = new HashSet<>();
-    public final Map<Long, List<Long>> stationToChargers = new HashMap<>();
-    public final Map<Long, List<Interval>> chargerAll = new HashMap<>();
-    public final Map<Long, List<Interval>> chargerUp = new HashMap<>();
+    static final String STATIONS_HEADER = "[Stations]";
+    static final String REPORTS_HEADER = "[Charger Availability Reports]";
+    private static final int READ_BUFFER_SIZE = 1 << 16;
 
+    public final StationTable stationToChargers = new StationTable();
+    public final IntervalStore chargerReports = new IntervalStore(stationToChargers);
+    private int reportParallelism = 1;
 
-    /** Parses the input file; throws InputFormatException on invalid format. */
+    /**
+     * Sets how many threads parse the [Charger Availability Reports] section.
+     * Above 1 the section is memory-mapped and parsed in newline-aligned chunks.
+     */
+    public void setReportParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        this.reportParallelism = parallelism;
+    }
+
+
+    /**
+     * Parses the input file; throws InputFormatException on invalid format.
+     * Lines are validated and consumed as they are read, so only the station
+     * tables and the interval data stay in memory.
+     */
     public void parse(String path) throws InputFormatException, IOException {
-        logger.info("Parsing started for file: " + path);
+        parse(path, chargerReports);
+    }
+
+    /**
+     * Parses the input file like {@link #parse(String)}, but hands the reports to sink
+     * instead of keeping them in chargerReports. Only chargerReports is parsed in parallel.
+     */
+    void parse(String path, ReportSink sink) throws InputFormatException, IOException {
+        parse(path, sink, true);
+    }
+
+    /**
+     * Parses a stations file for sharded input: like {@link #parse(String)}, except that the
+     * file may end right after the [Stations] section (the reports then come from shards).
+     */
+    public void parseStationsFile(String path) throws InputFormatException, IOException {
+        parse(path, chargerReports, false);
+    }
+
+    private void parse(String path, ReportSink sink, boolean requireReports) throws InputFormatException, IOException {
+        logger.log(Level.INFO, "Parsing started for file: {0}", path);
+        long startNanos = System.nanoTime();
+        long startAllocated = UptimeMetrics.threadAllocatedBytes();
+
+        try (InputStream in = new FileInputStream(path)) {
+            ByteLineReader reader = new ByteLineReader(in, READ_BUFFER_SIZE);
+            boolean hasReports = readStationsSection(reader, requireReports);
+            UptimeMetrics.INSTANCE.addBytesRead(reader.position());
+            if (hasReports) {
+                if (reportParallelism > 1 && sink == chargerReports) {
+                    ParallelReportParser.parse(this, Path.of(path), reader.position(), reportParallelism);
+                } else {
+                    availabilityReports(reader, sink);
+                }
+            }
+        }
+        UptimeMetrics.INSTANCE.addParse(System.nanoTime() - startNanos,
+                UptimeMetrics.threadAllocatedBytes() - startAllocated);
+        logger.info("Parsing completed successfully.");
+    }
 
-        List<String> lines = readCleanLines(path);
-        if (lines.isEmpty()) {
+    /**
+     * Validating pre-scan: checks the whole file with the same rules and messages as
+     * {@link #parse(String)}, but keeps only the byte offset of each report line instead of
+     * its interval. A bad file fails before any interval is stored; the reports of selected
+     * stations are then read back with {@link ReportIndex#load}.
+     */
+    ReportIndex scan(String path) throws InputFormatException, IOException {
+        logger.log(Level.INFO, "Scanning file: {0}", path);
+        ReportIndex.Builder index;
+        try (InputStream in = new FileInputStream(path)) {
+            ByteLineReader reader = new ByteLineReader(in, READ_BUFFER_SIZE);
+            readStationsSection(reader, true);
+            UptimeMetrics.INSTANCE.addBytesRead(reader.position());
+            index = new ReportIndex.Builder(this, Path.of(path));
+            availabilityReports(reader, (chargerId, start, end, up) -> index.add(chargerId, reader.lineOffset()));
+        }
+        logger.info("Scan completed successfully.");
+        return index.build();
+    }
+
+    /**
+     * Reads the headers and the [Stations] section, leaving reader just after the reports header.
+     * Returns false if the file ends after the stations, which is only allowed without requireReports.
+     */
+    private boolean readStationsSection(ByteLineReader reader, boolean requireReports)
+            throws InputFormatException, IOException {
+        String line = nextCleanLine(reader);
+        if (line == null) {
             logger.severe("File is empty");
             throw new InputFormatException("File is empty.");
         }
-        int idx = 0;
 
-        if (!lines.get(idx).equals("[Stations]")) {
+        if (!line.equals(STATIONS_HEADER)) {
             logger.severe("Missing [Stations] header");
             throw new InputFormatException("Missing [Stations] header.");
         }
-        idx++;
 
-        idx = parseStations(lines, idx);
+        line = parseStations(reader);
 
-        if (idx >= lines.size() || !lines.get(idx).equals("[Charger Availability Reports]")) {
+        if (line == null && !requireReports) return false;
+        if (line == null || !line.equals(REPORTS_HEADER)) {
             logger.severe("Missing [Charger Availability Reports] header");
             throw new InputFormatException("Missing [Charger Availability Reports] header or unexpected EOF.");
         }
-        idx++;
-
-        availabilityReports(lines, idx);
-        logger.info("Parsing completed successfully.");
+        return true;
     }
 
-    /** Reads non-empty trimmed lines from the file. */
-    private List<String> readCleanLines(String path) throws IOException {
-        List<String> lines = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String trimmed = line.trim();
-                if (!trimmed.isEmpty()) lines.add(trimmed);
+    /**
+     * Parses one report shard into target, validating charger IDs against this parser's
+     * stations. A shard is either bare report lines (optionally preceded by the reports
+     * header) or a full input file whose [Stations] section must match this parser's.
+     * Only reads the station tables, so several shards can be parsed at once.
+     */
+    void parseShard(Path shard, ReportSink target) throws InputFormatException, IOException {
+        try (InputStream in = new FileInputStream(shard.toFile())) {
+            ByteLineReader reader = new ByteLineReader(in, READ_BUFFER_SIZE);
+            String line = nextCleanLine(reader);
+            if (line != null && line.equals(STATIONS_HEADER)) {
+                InputParsingValidation shardStations = new InputParsingValidation();
+                line = shardStations.parseStations(reader);
+                if (!shardStations.stationToChargers.equals(stationToChargers)) {
+                    logger.log(Level.WARNING, "Stations of shard {0} differ from the stations file", shard);
+                    throw new InputFormatException("Shard [Stations] section differs from the stations file: " + shard);
+                }
+                if (line == null || !line.equals(REPORTS_HEADER)) {
+                    logger.log(Level.WARNING, "Missing [Charger Availability Reports] header in shard {0}", shard);
+                    throw new InputFormatException("Missing [Charger Availability Reports] header or unexpected EOF.");
+                }
+            } else if (line != null && !line.equals(REPORTS_HEADER)) {
+                parseReportLine(line, target); // first report of a bare shard
+                UptimeMetrics.INSTANCE.addReportSection(1, 0);
             }
+            UptimeMetrics.INSTANCE.addBytesRead(reader.position());
+            if (line != null) availabilityReports(reader, target);
+        }
+    }
+
+    /** Returns the next non-empty trimmed line, or null at end of file. */
+    private static String nextCleanLine(ByteLineReader reader) throws IOException {
+        while (reader.next()) {
+            String trimmed = currentLine(reader).trim();
+            if (!trimmed.isEmpty()) return trimmed;
         }
-        return lines;
+        return null;
     }
 
-    /** Parses the station->charger mappings. */
-    private int parseStations(List<String> lines, int idx) throws InputFormatException {
-        while (idx < lines.size() &&
-                !lines.get(idx).equals("[Charger Availability Reports]")) {
+    /** Decodes the reader's current line the same way FileReader would. */
+    private static String currentLine(ByteLineReader reader) {
+        return new String(reader.buffer(), reader.lineStart(),
+                reader.lineEnd() - reader.lineStart(), Charset.defaultCharset());
+    }
 
-            String[] parts = lines.get(idx).split("\\s+");
+    /**
+     * Parses the station->charger mappings.
+     * Returns the first line that is not a station line, or null at end of file.
+     */
+    private String parseStations(ByteLineReader reader) throws InputFormatException, IOException {
+        String line;
+        while ((line = nextCleanLine(reader)) != null && !line.equals(REPORTS_HEADER)) {
+
+            String[] parts = line.split("\\s+");
             if (parts.length < 2) {
-                logger.warning("Invalid station line: " + lines.get(idx));
+                logger.log(Level.WARNING, "Invalid station line: {0}", line);
                 throw new InputFormatException("Station line must have ID and at least one Charger ID.");
             }
 
             long stationId = parseUnsignedInt(parts[0], "Station ID");
 
-            if (stationToChargers.containsKey(stationId)) {
-                logger.warning("Duplicate station ID: " + stationId);
+            int station = stationToChargers.addStation(stationId);
+            if (station < 0) {
+                logger.log(Level.WARNING, "Duplicate station ID: {0,number,#}", stationId);
                 throw new InputFormatException("Station ID is not unique: " + stationId);
             }
 
-            List<Long> chargerList = new ArrayList<>();
-
             for (int i = 1; i < parts.length; i++) {
                 long cid = parseUnsignedInt(parts[i], "Charger ID");
-                if (chargers.contains(cid)) {
-                    logger.warning("Duplicate charger ID encountered: " + cid);
+                if (!stationToChargers.addCharger(station, cid)) {
+                    logger.log(Level.WARNING, "Duplicate charger ID encountered: {0,number,#}", cid);
                     throw new InputFormatException("Charger ID is not unique across all stations: " + cid);
                 }
-                chargers.add(cid);
-                chargerList.add(cid);
             }
+        }
+        return line;
+    }
 
-            stationToChargers.put(stationId, chargerList);
-            idx++;
+    /** Registers a station read from another source (e.g. a snapshot), with the same uniqueness rules. */
+    void addStation(long stationId, long[] chargerIds) throws InputFormatException {
+        int station = stationToChargers.addStation(stationId);
+        if (station < 0) {
+            throw new InputFormatException("Station ID is not unique: " + stationId);
+        }
+        for (long cid : chargerIds) {
+            if (!stationToChargers.addCharger(station, cid)) {
+                throw new InputFormatException("Charger ID is not unique across all stations: " + cid);
+            }
         }
-        return idx;
     }
 
+    /**
+     * Parses charger availability reports. Lines are tokenized straight from the
+     * read buffer; only lines outside the canonical form are decoded and handed
+     * to parseReportLine, which produces the exact validation errors.
+     */
+    void availabilityReports(ByteLineReader reader, ReportSink target) throws InputFormatException, IOException {
+        ReportLineTokenizer tokenizer = new ReportLineTokenizer();
+        long sectionStart = reader.position();
+        long lines = 0;
+        while (reader.next()) {
+            if (reportLine(reader.buffer(), reader.lineStart(), reader.lineEnd(), tokenizer, target)) lines++;
+        }
+        // Counted locally and published once, so the metrics stay off the per-line path.
+        UptimeMetrics.INSTANCE.addReportSection(lines, reader.position() - sectionStart);
+    }
 
-    /** Parses charger availability reports. */
-    private void availabilityReports(List<String> lines, int idx) throws InputFormatException {
-        for (int i = idx; i < lines.size(); i++) {
-            String[] parts = lines.get(i).split("\\s+");
-            if (parts.length != 4) {
-                logger.warning("Invalid availability report line: " + lines.get(i));
-                throw new InputFormatException("Report line must have exactly 4 parts.");
-            }
+    /** Parses the report line b[from, to) into target; returns false for a blank line. */
+    boolean reportLine(byte[] b, int from, int to, ReportLineTokenizer tokenizer, ReportSink target)
+            throws InputFormatException, IOException {
+        switch (tokenizer.tokenize(b, from, to)) {
+            case ReportLineTokenizer.BLANK:
+                return false;
+            case ReportLineTokenizer.PARSED:
+                addReport(tokenizer.chargerId, tokenizer.start, tokenizer.end, tokenizer.up, target);
+                return true;
+            default:
+                parseReportLine(new String(b, from, to - from, Charset.defaultCharset()).trim(), target);
+                return true;
+        }
+    }
 
-            long chargerId = parseUnsignedInt(parts[0], "Report Charger ID");
+    /** Validates an already tokenized report and stores it. */
+    private void addReport(long chargerId, long start, long end, boolean up, ReportSink target)
+            throws InputFormatException, IOException {
+        target.add(validateReport(chargerId, start, end), chargerId, start, end, up);
+    }
 
-            if (!chargers.contains(chargerId)) {
-                logger.warning("Report references unknown charger ID: " + chargerId);
-                throw new InputFormatException("Report Charger ID not found in station definitions: " + chargerId);
-            }
+    /**
+     * Checks a tokenized report against the station definitions: the charger must be
+     * defined and start < end (unsigned). Returns the charger's ordinal in stationToChargers.
+     * Safe to call from several threads once parsing is done.
+     */
+    int validateReport(long chargerId, long start, long end) throws InputFormatException {
+        int charger = stationToChargers.chargerOrdinal(chargerId);
+        if (charger < 0) {
+            logger.log(Level.WARNING, "Report references unknown charger ID: {0,number,#}", chargerId);
+            throw new InputFormatException("Report Charger ID not found in station definitions: " + chargerId);
+        }
+        if (Long.compareUnsigned(start, end) >= 0) {
+            logger.log(Level.WARNING, "Invalid interval (start >= end) for charger {0,number,#}", chargerId);
+            throw new InputFormatException("Start time must be less than end time.");
+        }
+        return charger;
+    }
 
-            BigInteger start = parseUnsignedBig(parts[1], "Start Time");
-            BigInteger end = parseUnsignedBig(parts[2], "End Time");
+    /** Parses one trimmed, non-empty report line. */
+    private void parseReportLine(String line, ReportSink target) throws InputFormatException, IOException {
+        String[] parts = line.split("\\s+");
+        if (parts.length != 4) {
+            logger.log(Level.WARNING, "Invalid availability report line: {0}", line);
+            throw new InputFormatException("Report line must have exactly 4 parts.");
+        }
 
-            if (start.compareTo(end) >= 0) {
-                logger.warning("Invalid interval (start >= end) for charger " + chargerId);
-                throw new InputFormatException("Start time must be less than end time.");
-            }
+        long chargerId = parseUnsignedInt(parts[0], "Report Charger ID");
 
-            boolean up;
-            String upStr = parts[3].toLowerCase();
-            if (upStr.equals("true")) up = true;
-            else if (upStr.equals("false")) up = false;
-            else {
-                logger.warning("Invalid boolean: " + parts[3]);
-                throw new InputFormatException("Invalid boolean value in report: " + parts[3]);
-            }
+        int charger = stationToChargers.chargerOrdinal(chargerId);
+        if (charger < 0) {
+            logger.log(Level.WARNING, "Report references unknown charger ID: {0,number,#}", chargerId);
+            throw new InputFormatException("Report Charger ID not found in station definitions: " + chargerId);
+        }
+
+        long start = parseUnsignedLong(parts[1], "Start Time");
+        long end = parseUnsignedLong(parts[2], "End Time");
+
+        if (Long.compareUnsigned(start, end) >= 0) {
+            logger.log(Level.WARNING, "Invalid interval (start >= end) for charger {0,number,#}", chargerId);
+            throw new InputFormatException("Start time must be less than end time.");
+        }
 
-            Interval iv = new Interval(start, end);
-            chargerAll.computeIfAbsent(chargerId, k -> new ArrayList<>()).add(iv);
-            if (up) chargerUp.computeIfAbsent(chargerId, k -> new ArrayList<>()).add(iv);
+        boolean up;
+        String upStr = parts[3].toLowerCase();
+        if (upStr.equals("true")) up = true;
+        else if (upStr.equals("false")) up = false;
+        else {
+            logger.log(Level.WARNING, "Invalid boolean: {0}", parts[3]);
+            throw new InputFormatException("Invalid boolean value in report: " + parts[3]);
         }
+
+        target.add(charger, chargerId, start, end, up);
     }
 
     /** Parses unsigned 32-bit integer (IDs) into long. */
@@ -140,27 +312,31 @@ public class InputParsingValidation {
         try {
             long v = Long.parseLong(s);
             if (v < 0 || v > 0xFFFFFFFFL) { //0xFFFFFFFFL -> 2^32 -1
-                logger.warning(name + " out of 32-bit range: " + s);
+                logger.log(Level.WARNING, "{0} out of 32-bit range: {1}", new Object[]{name, s});
                 throw new InputFormatException(name + " out of 32-bit range: " + s);
             }
             return v;
         } catch (NumberFormatException e) {
-            logger.warning(name + " is not a valid number: " + s);
+            logger.log(Level.WARNING, "{0} is not a valid number: {1}", new Object[]{name, s});
             throw new InputFormatException(name + " is not a valid number: " + s);
         }
     }
 
-    /** Parses unsigned 64-bit integer (Times) into BigInteger. */
-    private BigInteger parseUnsignedBig(String s, String name) throws InputFormatException {
+    /** Parses unsigned 64-bit integer (Times) into the bits of a long. */
+    private long parseUnsignedLong(String s, String name) throws InputFormatException {
         try {
             BigInteger bi = new BigInteger(s);
             if (bi.compareTo(BigInteger.ZERO) < 0) {
-                logger.warning(name + " cannot be negative: " + s);
+                logger.log(Level.WARNING, "{0} cannot be negative: {1}", new Object[]{name, s});
                 throw new InputFormatException(name + " cannot be negative: " + s);
             }
-            return bi;
+            if (bi.bitLength() > 64) { // above 2^64 - 1
+                logger.log(Level.WARNING, "{0} out of 64-bit range: {1}", new Object[]{name, s});
+                throw new InputFormatException(name + " out of 64-bit range: " + s);
+            }
+            return bi.longValue();
         } catch (NumberFormatException e) {
-            logger.warning(name + " is not a valid number: " + s);
+            logger.log(Level.WARNING, "{0} is not a valid number: {1}", new Object[]{name, s});
             throw new InputFormatException(name + " is not a valid large number: " + s);
         }
     }
@@ -0,0 +1,140 @@
+import java.util.Arrays;
+
+/**
+ * Interval data of one charger stored column-wise: parallel start/end arrays
+ * plus one up bit per entry. Times are unsigned 64-bit values held in longs.
+ * A running hash of the start/end columns is kept as entries are added, so the
+ * result cache can fingerprint a charger without another pass over its data.
+ */
+public class IntervalColumns {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long[] starts = new long[INITIAL_CAPACITY];
+    private long[] ends = new long[INITIAL_CAPACITY];
+    private long[] upBits = new long[1];
+    private int size;
+    private int upCount;
+    private boolean sortedByStart = true;
+    private long minStart = -1; // unsigned max
+    private long maxEnd;
+    private long contentHash = ResultCache.Hasher.SEED;
+
+    public IntervalColumns() {
+    }
+
+    /** Adopts ready-made columns (e.g. loaded from a snapshot); upBits holds one bit per entry. */
+    IntervalColumns(long[] starts, long[] ends, long[] upBits, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.upBits = upBits;
+        this.size = size;
+        for (long word : upBits) upCount += Long.bitCount(word);
+        for (int i = 0; i < size; i++) track(i);
+    }
+
+    /** Appends interval [start, end); grows the columns as needed. */
+    public void add(long start, long end, boolean up) {
+        if (size == starts.length) grow();
+        starts[size] = start;
+        ends[size] = end;
+        if (up) {
+            upBits[size >>> 6] |= 1L << size;
+            upCount++;
+        }
+        track(size);
+        size++;
+    }
+
+    /** Updates the sortedness flag, start/end bounds and content hash for entry i, given entries before it. */
+    private void track(int i) {
+        contentHash = ResultCache.Hasher.mix(ResultCache.Hasher.mix(contentHash, starts[i]), ends[i]);
+        if (i > 0 && Long.compareUnsigned(starts[i], starts[i - 1]) < 0) sortedByStart = false;
+        if (Long.compareUnsigned(starts[i], minStart) < 0) minStart = starts[i];
+        if (Long.compareUnsigned(ends[i], maxEnd) > 0) maxEnd = ends[i];
+    }
+
+    /** Appends all intervals of other, keeping their order. */
+    public void addAll(IntervalColumns other) {
+        ensureCapacity(size + other.size);
+        for (int i = 0; i < other.size; i++) {
+            add(other.starts[i], other.ends[i], other.isUp(i));
+        }
+    }
+
+    /** These intervals ordered by start: this object itself if already sorted, else a sorted copy. */
+    IntervalColumns sortedByStart() {
+        if (sortedByStart) return this;
+        long[] keys = Arrays.copyOf(starts, size);
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        IntervalSort.sortByStart(keys, order, size);
+
+        IntervalColumns sorted = new IntervalColumns();
+        sorted.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            int j = (int) order[i];
+            sorted.add(starts[j], ends[j], isUp(j));
+        }
+        return sorted;
+    }
+
+    private void grow() {
+        // Adopted columns may be exactly sized, down to length 0 or 1.
+        ensureCapacity(Math.max(INITIAL_CAPACITY, starts.length + (starts.length >> 1)));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= starts.length) return;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        upBits = Arrays.copyOf(upBits, (capacity + 63) >>> 6);
+    }
+
+    /** Number of intervals (up and down). */
+    public int size() {
+        return size;
+    }
+
+    /** Number of up intervals. */
+    public int upCount() {
+        return upCount;
+    }
+
+    /** True while every entry starts no earlier (unsigned) than the one before it. */
+    public boolean isSortedByStart() {
+        return sortedByStart;
+    }
+
+    /** Earliest start (unsigned); unsigned max when empty. */
+    public long minStart() {
+        return minStart;
+    }
+
+    /** Latest end (unsigned); 0 when empty. */
+    public long maxEnd() {
+        return maxEnd;
+    }
+
+    public long start(int i) {
+        return starts[i];
+    }
+
+    public long end(int i) {
+        return ends[i];
+    }
+
+    public boolean isUp(int i) {
+        return (upBits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    /** Hash of the start and end of every entry, in order (not of the up bits). */
+    long contentHash() {
+        return contentHash;
+    }
+
+    /** Up bits of entries 64*w .. 64*w+63 (bit i%64 set when entry i is up). */
+    long upWord(int w) {
+        return upBits[w];
+    }
+}
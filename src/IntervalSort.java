@@ -0,0 +1,158 @@
+/**
+ * Sorts parallel start/end arrays by unsigned start time without boxing.
+ *
+ * sortByStart picks the algorithm: input that is already in order (common,
+ * since chargers report in time order) is detected in one pass; large inputs
+ * use an LSD radix sort on the unsigned 64-bit keys; the rest use an
+ * introsort. See benchmarks.SortBenchmark for where the radix sort wins.
+ */
+final class IntervalSort {
+
+    private static final int INSERTION_THRESHOLD = 32;
+    /** From this size on the radix sort beats the comparison sort (see SortBenchmark). */
+    static final int RADIX_THRESHOLD = 256;
+
+    private IntervalSort() {
+    }
+
+    /** Sorts the first n entries of starts (and ends alongside) in unsigned order. */
+    static void sortByStart(long[] starts, long[] ends, int n) {
+        if (n < 2 || isSorted(starts, n)) return;
+        if (n >= RADIX_THRESHOLD) radixSort(starts, ends, n);
+        else comparisonSort(starts, ends, n);
+    }
+
+    /** True if starts[0..n) is in non-decreasing unsigned order. */
+    static boolean isSorted(long[] starts, int n) {
+        for (int i = 1; i < n; i++) {
+            if (Long.compareUnsigned(starts[i - 1], starts[i]) > 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * LSD radix sort, one byte per pass. Byte positions on which all keys agree
+     * (e.g. the high bytes of small timestamps) are skipped. Stable; uses 2n
+     * longs of scratch space.
+     */
+    static void radixSort(long[] starts, long[] ends, int n) {
+        if (n < 2) return;
+        int[][] counts = new int[8][256];
+        for (int i = 0; i < n; i++) {
+            long k = starts[i];
+            for (int b = 0; b < 8; b++) counts[b][(int) (k >>> (b << 3)) & 0xFF]++;
+        }
+
+        long[] srcS = starts, srcE = ends;
+        long[] dstS = new long[n], dstE = new long[n];
+        for (int b = 0; b < 8; b++) {
+            int[] count = counts[b];
+            if (count[(int) (srcS[0] >>> (b << 3)) & 0xFF] == n) continue; // every key has this byte
+
+            int sum = 0;
+            for (int d = 0; d < 256; d++) {
+                int c = count[d];
+                count[d] = sum;
+                sum += c;
+            }
+            int shift = b << 3;
+            for (int i = 0; i < n; i++) {
+                int pos = count[(int) (srcS[i] >>> shift) & 0xFF]++;
+                dstS[pos] = srcS[i];
+                dstE[pos] = srcE[i];
+            }
+            long[] t = srcS; srcS = dstS; dstS = t;
+            t = srcE; srcE = dstE; dstE = t;
+        }
+        if (srcS != starts) {
+            System.arraycopy(srcS, 0, starts, 0, n);
+            System.arraycopy(srcE, 0, ends, 0, n);
+        }
+    }
+
+    /** Introsort (quicksort, heapsort fallback, insertion sort for small ranges). */
+    static void comparisonSort(long[] starts, long[] ends, int n) {
+        if (n < 2) return;
+        // Flipping the sign bit maps unsigned order onto signed order, so plain '<' works below.
+        flipSign(starts, n);
+        introSort(starts, ends, 0, n - 1, 2 * (63 - Long.numberOfLeadingZeros(n)));
+        flipSign(starts, n);
+    }
+
+    private static void flipSign(long[] a, int n) {
+        for (int i = 0; i < n; i++) a[i] ^= Long.MIN_VALUE;
+    }
+
+    private static void introSort(long[] s, long[] e, int lo, int hi, int depth) {
+        while (hi - lo >= INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(s, e, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (s[mid] < s[lo]) swap(s, e, mid, lo);
+            if (s[hi] < s[lo]) swap(s, e, hi, lo);
+            if (s[hi] < s[mid]) swap(s, e, hi, mid);
+            long pivot = s[mid];
+
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (s[i] < pivot) i++;
+                while (s[j] > pivot) j--;
+                if (i <= j) swap(s, e, i++, j--);
+            }
+            // Recurse into the smaller half to bound stack depth.
+            if (j - lo < hi - i) {
+                introSort(s, e, lo, j, depth);
+                lo = i;
+            } else {
+                introSort(s, e, i, hi, depth);
+                hi = j;
+            }
+        }
+        insertionSort(s, e, lo, hi);
+    }
+
+    private static void insertionSort(long[] s, long[] e, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long ks = s[i], ke = e[i];
+            int j = i - 1;
+            while (j >= lo && s[j] > ks) {
+                s[j + 1] = s[j];
+                e[j + 1] = e[j];
+                j--;
+            }
+            s[j + 1] = ks;
+            e[j + 1] = ke;
+        }
+    }
+
+    private static void heapSort(long[] s, long[] e, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) siftDown(s, e, lo, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            swap(s, e, lo, lo + end);
+            siftDown(s, e, lo, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] s, long[] e, int base, int i, int n) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) return;
+            if (child + 1 < n && s[base + child + 1] > s[base + child]) child++;
+            if (s[base + i] >= s[base + child]) return;
+            swap(s, e, base + i, base + child);
+            i = child;
+        }
+    }
+
+    private static void swap(long[] s, long[] e, int i, int j) {
+        long t = s[i];
+        s[i] = s[j];
+        s[j] = t;
+        t = e[i];
+        e[i] = e[j];
+        e[j] = t;
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.Arrays;
+
+/**
+ * Compact per-charger interval storage (replaces lists of BigInteger intervals).
+ * Chargers are the ones of a StationTable and each has a slot at its charger
+ * ordinal there, so a report costs no lookup of its own once the parser has
+ * resolved the charger, and lookups do not box.
+ */
+public class IntervalStore implements ReportSink {
+
+    private final StationTable stations;
+    private IntervalColumns[] byCharger = new IntervalColumns[0];
+
+    /** Creates a store for the chargers of stations; they may still be added after this. */
+    public IntervalStore(StationTable stations) {
+        this.stations = stations;
+    }
+
+    /** Appends interval [start, end) reported for the given charger, which must be defined by the stations. */
+    @Override
+    public void add(long chargerId, long start, long end, boolean up) {
+        int c = stations.chargerOrdinal(chargerId);
+        if (c < 0) throw new IllegalArgumentException("Charger is not defined by the store's stations: " + chargerId);
+        add(c, chargerId, start, end, up);
+    }
+
+    @Override
+    public void add(int charger, long chargerId, long start, long end, boolean up) {
+        IntervalColumns columns = charger < byCharger.length ? byCharger[charger] : null;
+        if (columns == null) set(charger, columns = new IntervalColumns());
+        columns.add(start, end, up);
+    }
+
+    /**
+     * Appends every interval of other, which must use the same stations, after the ones
+     * already stored for the same charger. Columns of other may be adopted as-is, so
+     * other must not be modified afterwards.
+     */
+    public void addAll(IntervalStore other) {
+        if (other.stations != stations) throw new IllegalArgumentException("Stores use different stations.");
+        for (int c = 0; c < other.byCharger.length; c++) {
+            IntervalColumns added = other.byCharger[c];
+            if (added == null) continue;
+            IntervalColumns columns = columns(c);
+            if (columns == null) set(c, added);
+            else columns.addAll(added);
+        }
+    }
+
+    /** Sets the intervals of the charger with the given ordinal, replacing any stored ones. */
+    void set(int charger, IntervalColumns columns) {
+        if (charger >= byCharger.length) {
+            byCharger = Arrays.copyOf(byCharger, Math.max(charger + 1, stations.chargerCount()));
+        }
+        byCharger[charger] = columns;
+    }
+
+    /** Intervals of the charger with the given ordinal, or null if there are none. */
+    IntervalColumns columns(int charger) {
+        return charger < byCharger.length ? byCharger[charger] : null;
+    }
+
+    /** Returns the intervals reported for the charger, or null if there are none. */
+    public IntervalColumns get(long chargerId) {
+        int c = stations.chargerOrdinal(chargerId);
+        return c < 0 ? null : columns(c);
+    }
+
+    public boolean containsKey(long chargerId) {
+        return get(chargerId) != null;
+    }
+}
@@ -1,35 +1,250 @@
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Set;
 import java.util.logging.*;
 
 public class Main {
 
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
+    /** --parse-threads=N: parse the reports section memory-mapped on N threads. */
+    static final String PARSE_THREADS = "parse-threads";
+    /** --compute-threads=N: compute station uptimes on N threads. */
+    static final String COMPUTE_THREADS = "compute-threads";
+    /** --window=FROM:TO: report uptime over the time window [FROM, TO) only. */
+    static final String WINDOW = "window";
+    /** --snapshot-out=PATH: also write the parsed data as a binary snapshot (reloaded when passed as input). */
+    static final String SNAPSHOT_OUT = "snapshot-out";
+    /** --snapshot-delta: delta-encode the snapshot columns. */
+    static final String SNAPSHOT_DELTA = "snapshot-delta";
+    /** --external-memory-mb=N: out-of-core mode; spill sorted runs to temp files, keeping about N MB of reports in memory. */
+    static final String EXTERNAL_MEMORY_MB = "external-memory-mb";
+    /** --serve=PORT: keep the parsed state resident and serve queries/ingestion over HTTP on 127.0.0.1:PORT. */
+    static final String SERVE = "serve";
+    /** --metrics: collect per-station timings, expose them over JMX and print a summary to stderr at the end. */
+    static final String METRICS = "metrics";
+    /** --format=text|csv|jsonl|binary: output format (text, "<StationID> <Uptime%>" lines, by default). */
+    static final String FORMAT = "format";
+    /**
+     * --reports=DIR|GLOB|FILE: read the reports from these shards, parsed concurrently; the input path is then
+     * a stations file (its own reports section is optional).
+     */
+    static final String REPORTS = "reports";
+    /** --analytics=PATH: also write per-charger uptime, largest outage and unreported-gap count as CSV. */
+    static final String ANALYTICS = "analytics";
+    /** --rollup=WIDTH[@ORIGIN]: print each station's uptime per time bucket of WIDTH aligned to ORIGIN (default 0). */
+    static final String ROLLUP = "rollup";
+    /**
+     * --station=ID[,ID...]: validate the whole file in a cheap pre-scan, then read back and print only
+     * these stations' reports.
+     */
+    static final String STATION = "station";
+    /**
+     * --cache-dir=DIR: keep results in an on-disk cache keyed by the input's content hash; identical inputs
+     * are answered without parsing, and stations whose data is unchanged are not recomputed.
+     */
+    static final String CACHE_DIR = "cache-dir";
+    /** --cache-max-mb=N: evict least recently used cache entries beyond N MB (default 64). */
+    static final String CACHE_MAX_MB = "cache-max-mb";
+    private static final Set<String> OPTIONS = Set.of(PARSE_THREADS, COMPUTE_THREADS, WINDOW,
+            SNAPSHOT_OUT, SNAPSHOT_DELTA, EXTERNAL_MEMORY_MB, SERVE, METRICS, FORMAT, REPORTS, ANALYTICS, ROLLUP,
+            STATION, CACHE_DIR, CACHE_MAX_MB);
+
+    // Handler of the latest setupFileLogger call, closed at exit by a hook added only once.
+    private static volatile AsyncLogHandler installedLogHandler;
+    private static boolean logShutdownHookAdded; // guarded by Main.class
+
     public static void main(String[] args) {
-        setupFileLogger();
+        AsyncLogHandler logHandler = setupFileLogger();
+        try {
+            run(args);
+        } finally {
+            if (logHandler != null) logHandler.flush();
+        }
+    }
 
-        if (args.length != 1) {
+    /** Runs the program on args, without touching logging setup. */
+    static void run(String[] args) {
+        CommandLine cli;
+        try {
+            cli = CommandLine.parse(args, OPTIONS);
+        } catch (IllegalArgumentException e) {
+            logger.severe("Invalid arguments: " + e.getMessage());
             System.out.println("ERROR");
             return;
         }
 
+        boolean metrics = cli.has(METRICS);
+        if (metrics) {
+            UptimeMetrics.INSTANCE.setDetailed(true);
+            UptimeMetrics.INSTANCE.registerMBean();
+        }
+
         try {
-            InputParsingValidation parser = new InputParsingValidation();
-            parser.parse(args[0]);
+            int parseThreads = cli.positiveInt(PARSE_THREADS, 1);
+            int computeThreads = cli.positiveInt(COMPUTE_THREADS, 1);
+            long[] window = cli.has(WINDOW) ? parseWindow(cli.option(WINDOW, "")) : null;
+            long[] rollup = cli.has(ROLLUP) ? parseRollup(cli.option(ROLLUP, "")) : null;
+            UptimeWriter.Format format = UptimeWriter.Format.parse(cli.option(FORMAT, "text"));
+
+            if (cli.has(ANALYTICS) && (window != null || cli.has(EXTERNAL_MEMORY_MB) || cli.has(SERVE))) {
+                throw new IllegalArgumentException("--" + ANALYTICS
+                        + " cannot be combined with --window, --external-memory-mb or --serve");
+            }
+            if (rollup != null && (window != null || cli.has(EXTERNAL_MEMORY_MB) || cli.has(SERVE)
+                    || cli.has(ANALYTICS))) {
+                throw new IllegalArgumentException("--" + ROLLUP
+                        + " cannot be combined with --window, --external-memory-mb, --serve or --analytics");
+            }
+
+            if (cli.has(CACHE_DIR) && (window != null || rollup != null || cli.has(EXTERNAL_MEMORY_MB)
+                    || cli.has(SERVE) || cli.has(ANALYTICS) || cli.has(REPORTS) || cli.has(SNAPSHOT_OUT)
+                    || cli.has(STATION))) {
+                throw new IllegalArgumentException("--" + CACHE_DIR + " only supports the default full run"
+                        + " (optionally with --format, --parse-threads, --compute-threads or --metrics)");
+            }
+
+            if (cli.has(EXTERNAL_MEMORY_MB)) {
+                if (window != null || cli.has(SNAPSHOT_OUT) || cli.has(REPORTS)
+                        || Snapshot.isSnapshot(Path.of(cli.inputPath))) {
+                    throw new IllegalArgumentException("--" + EXTERNAL_MEMORY_MB
+                            + " only supports a single text input without --window, --snapshot-out or --reports");
+                }
+                long budget = cli.positiveInt(EXTERNAL_MEMORY_MB, 1) * (1L << 20);
+                ExternalUptime.computeAndPrint(cli.inputPath, budget, format);
+                return;
+            }
+
+            if (cli.has(STATION)) {
+                if (window != null || rollup != null || cli.has(EXTERNAL_MEMORY_MB) || cli.has(SERVE)
+                        || cli.has(ANALYTICS) || cli.has(REPORTS) || cli.has(SNAPSHOT_OUT)
+                        || Snapshot.isSnapshot(Path.of(cli.inputPath))) {
+                    throw new IllegalArgumentException("--" + STATION
+                            + " only supports a single text input, optionally with --format");
+                }
+                long[] stationIds = parseStationIds(cli.option(STATION, ""));
+                InputParsingValidation parser = new InputParsingValidation();
+                ReportIndex index = parser.scan(cli.inputPath);
+                for (long id : stationIds) {
+                    if (!parser.stationToChargers.containsStation(id)) {
+                        throw new IllegalArgumentException("Unknown station: " + id);
+                    }
+                }
+                index.load(stationIds);
+                StationUptime uptime = new StationUptime(parser);
+                uptime.setOutputFormat(format);
+                uptime.computeAndPrint(stationIds);
+                return;
+            }
+
+            ResultCache cache = null;
+            ResultCache.Key cacheKey = null;
+            if (cli.has(CACHE_DIR)) {
+                cache = new ResultCache(Path.of(cli.option(CACHE_DIR, "")),
+                        cli.positiveInt(CACHE_MAX_MB, 64) * (1L << 20));
+                cacheKey = ResultCache.key(Path.of(cli.inputPath));
+                // Only successfully validated inputs are cached, so a hit cannot hide an ERROR.
+                ResultCache.Results hit = cache.get(cacheKey);
+                if (hit != null) {
+                    logger.info("Serving results from cache entry " + cacheKey);
+                    hit.print(format);
+                    return;
+                }
+            }
+
+            InputParsingValidation parser;
+            if (cli.has(REPORTS)) {
+                parser = new InputParsingValidation();
+                parser.parseStationsFile(cli.inputPath);
+                ShardedReportParser.parse(parser, ShardedReportParser.resolve(cli.option(REPORTS, "")),
+                        cli.positiveInt(PARSE_THREADS, Runtime.getRuntime().availableProcessors()));
+            } else if (Snapshot.isSnapshot(Path.of(cli.inputPath))) {
+                parser = Snapshot.read(Path.of(cli.inputPath));
+            } else {
+                parser = new InputParsingValidation();
+                parser.setReportParallelism(parseThreads);
+                parser.parse(cli.inputPath);
+            }
+            if (cli.has(SNAPSHOT_OUT)) {
+                Snapshot.write(parser, Path.of(cli.option(SNAPSHOT_OUT, "")), cli.has(SNAPSHOT_DELTA));
+            }
+
+            if (cli.has(SERVE)) {
+                UptimeServer server = new UptimeServer(parser);
+                server.start(cli.nonNegativeInt(SERVE, 0),
+                        cli.positiveInt(COMPUTE_THREADS, Runtime.getRuntime().availableProcessors()));
+                System.out.println("Serving on http://127.0.0.1:" + server.port());
+                return;
+            }
+
+            if (rollup != null) {
+                UptimeRollup.build(parser, rollup[0], rollup[1], computeThreads).print(format);
+                return;
+            }
 
             StationUptime uptime = new StationUptime(parser);
-            uptime.computeAndPrint();
+            uptime.setOutputFormat(format);
+            if (cli.has(ANALYTICS)) uptime.setAnalyticsOutput(Path.of(cli.option(ANALYTICS, "")));
+            if (cache != null) uptime.setResultCache(cache, cacheKey);
+            if (window != null) uptime.computeAndPrint(window[0], window[1]);
+            else uptime.computeAndPrint(computeThreads);
 
         } catch (Exception e) {
             logger.severe("Fatal Error: " + e.getMessage());
             System.out.println("ERROR");
+        } finally {
+            if (metrics) System.err.print(UptimeMetrics.INSTANCE.summary());
         }
     }
 
-    private static void setupFileLogger() {
+    /** Parses FROM:TO (unsigned 64-bit, FROM < TO). */
+    private static long[] parseWindow(String value) {
+        int colon = value.indexOf(':');
+        try {
+            long from = Long.parseUnsignedLong(value.substring(0, Math.max(colon, 0)));
+            long to = Long.parseUnsignedLong(value.substring(colon + 1));
+            if (Long.compareUnsigned(from, to) >= 0) {
+                throw new IllegalArgumentException("--window start must be less than end: " + value);
+            }
+            return new long[]{from, to};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--window must be FROM:TO: " + value);
+        }
+    }
+
+    /** Parses WIDTH[@ORIGIN] (unsigned 64-bit, WIDTH > 0, ORIGIN defaults to 0). */
+    private static long[] parseRollup(String value) {
+        int at = value.indexOf('@');
+        try {
+            long width = Long.parseUnsignedLong(at < 0 ? value : value.substring(0, at));
+            long origin = at < 0 ? 0 : Long.parseUnsignedLong(value.substring(at + 1));
+            if (width == 0) throw new IllegalArgumentException("--rollup width must be positive: " + value);
+            return new long[]{width, origin};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--rollup must be WIDTH[@ORIGIN]: " + value);
+        }
+    }
+
+    /** Parses a comma-separated list of station IDs, each an unsigned 32-bit value. */
+    private static long[] parseStationIds(String value) {
+        String[] parts = value.split(",");
+        long[] ids = new long[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) ids[i] = Long.parseLong(parts[i].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--station must be ID[,ID...]: " + value);
+        }
+        for (long id : ids) {
+            if (id < 0 || id > 0xFFFFFFFFL) throw new IllegalArgumentException("--station ID out of range: " + id);
+        }
+        return ids;
+    }
+
+    /** Installs the per-run log file behind an AsyncLogHandler; returns it, or null if the file cannot be opened. */
+    private static synchronized AsyncLogHandler setupFileLogger() {
         try {
             File logDir = new File("logs");
             if (!logDir.exists()) logDir.mkdir();
@@ -42,16 +257,31 @@ public class Main {
             handler.setFormatter(new SimpleFormatter());
             handler.setLevel(Level.ALL);
 
+            // Log calls only enqueue; the file is written in batches on a background thread.
+            AsyncLogHandler async = new AsyncLogHandler(handler);
+
             Logger root = Logger.getLogger("");
             for (Handler h : root.getHandlers()) {
                 root.removeHandler(h);
+                if (h instanceof AsyncLogHandler) h.close(); // from an earlier run in this JVM
             }
 
-            root.addHandler(handler);
+            root.addHandler(async);
+            installedLogHandler = async;
+            if (!logShutdownHookAdded) {
+                // One hook per JVM, closing whichever handler the latest run installed.
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    AsyncLogHandler installed = installedLogHandler;
+                    if (installed != null) installed.close();
+                }, "async-log-shutdown"));
+                logShutdownHookAdded = true;
+            }
 
             root.setLevel(Level.INFO);
+            return async;
         } catch (IOException e) {
             System.err.println("Could not initialize file logging: " + e.getMessage());
+            return null;
         }
     }
 }
@@ -0,0 +1,116 @@
+import java.util.List;
+
+/**
+ * Sorted, disjoint up-intervals of one station (unsigned 64-bit times),
+ * i.e. the union of its chargers' up reports.
+ */
+final class MergedIntervals {
+
+    final long[] starts;
+    final long[] ends;
+    final int size;
+
+    private MergedIntervals(long[] starts, long[] ends, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Gathers the up intervals of all reports in start order and merges overlapping ones in place.
+     * Runs that are already sorted are k-way merged; otherwise everything is concatenated and sorted.
+     */
+    static MergedIntervals ofUp(List<IntervalColumns> reports) {
+        int n = 0;
+        for (IntervalColumns c : reports) n += c.upCount();
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        if (n == 0) return new MergedIntervals(starts, ends, 0);
+
+        int k = 0;
+        if (RunMerger.allSorted(reports)) {
+            RunMerger merger = new RunMerger(reports);
+            while (merger.next()) {
+                starts[k] = merger.start;
+                ends[k] = merger.end;
+                k++;
+            }
+        } else {
+            for (IntervalColumns c : reports) {
+                for (int i = 0; i < c.size(); i++) {
+                    if (c.isUp(i)) {
+                        starts[k] = c.start(i);
+                        ends[k] = c.end(i);
+                        k++;
+                    }
+                }
+            }
+            IntervalSort.sortByStart(starts, ends, n);
+        }
+
+        int out = 0;
+        long cs = starts[0];
+        long ce = ends[0];
+        for (int i = 1; i < n; i++) {
+            if (Long.compareUnsigned(starts[i], ce) <= 0) {
+                if (Long.compareUnsigned(ends[i], ce) > 0) ce = ends[i];
+            } else {
+                starts[out] = cs;
+                ends[out] = ce;
+                out++;
+                cs = starts[i];
+                ce = ends[i];
+            }
+        }
+        starts[out] = cs;
+        ends[out] = ce;
+        return new MergedIntervals(starts, ends, out + 1);
+    }
+
+    /**
+     * Union length of the up intervals of all reports. When every run is sorted by start this is a
+     * single streaming pass over a k-way merge, O(n log k) with no temporary arrays.
+     */
+    static long unionLength(List<IntervalColumns> reports) {
+        if (!RunMerger.allSorted(reports)) return ofUp(reports).totalLength();
+
+        RunMerger merger = new RunMerger(reports);
+        Union union = new Union();
+        while (merger.next()) union.add(merger.start, merger.end);
+        return union.length();
+    }
+
+    /** Streaming union length of intervals fed in non-decreasing (unsigned) start order. */
+    static final class Union {
+        private long total;
+        private long cs;
+        private long ce;
+        private boolean open;
+
+        void add(long start, long end) {
+            if (!open) {
+                cs = start;
+                ce = end;
+                open = true;
+            } else if (Long.compareUnsigned(start, ce) <= 0) {
+                if (Long.compareUnsigned(end, ce) > 0) ce = end;
+            } else {
+                total += ce - cs;
+                cs = start;
+                ce = end;
+            }
+        }
+
+        /** Covered length of everything added so far. */
+        long length() {
+            return open ? total + (ce - cs) : 0;
+        }
+    }
+
+    /** Total covered length; never exceeds the reporting span, so it fits in 64 unsigned bits. */
+    long totalLength() {
+        long total = 0;
+        for (int i = 0; i < size; i++) total += ends[i] - starts[i];
+        return total;
+    }
+}
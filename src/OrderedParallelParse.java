@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs numbered parse tasks (file chunks, report shards) on a pool and returns
+ * their results in task order. Once a task fails, tasks numbered after it are
+ * skipped, and the error of the lowest-numbered failed task is thrown, so the
+ * outcome is the same as parsing the tasks one after the other.
+ */
+final class OrderedParallelParse {
+
+    /** One numbered unit of parsing. */
+    interface Task<T> {
+        T parse(int index) throws InputFormatException, IOException;
+    }
+
+    private OrderedParallelParse() {
+    }
+
+    /** Runs tasks 0..count-1 on pool; `what` names the work in the interruption error. */
+    static <T> List<T> run(ExecutorService pool, int count, Task<T> task, String what)
+            throws InputFormatException, IOException {
+        AtomicInteger firstFailed = new AtomicInteger(Integer.MAX_VALUE);
+        List<Future<Outcome<T>>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            futures.add(pool.submit(() -> attempt(task, index, firstFailed)));
+        }
+
+        // Joined in task order, so the first failure seen belongs to the earliest bad task.
+        List<T> results = new ArrayList<>(count);
+        for (Future<Outcome<T>> future : futures) {
+            Outcome<T> outcome = join(future, what);
+            if (outcome.formatError != null) throw outcome.formatError;
+            if (outcome.ioError != null) throw outcome.ioError;
+            results.add(outcome.result);
+        }
+        return results;
+    }
+
+    /** Outcome of one task: its result, or the error that stopped it. */
+    private static final class Outcome<T> {
+        final T result;
+        final InputFormatException formatError;
+        final IOException ioError;
+
+        Outcome(T result, InputFormatException formatError, IOException ioError) {
+            this.result = result;
+            this.formatError = formatError;
+            this.ioError = ioError;
+        }
+    }
+
+    /** Runs one task; tasks after an already failed one are skipped. */
+    private static <T> Outcome<T> attempt(Task<T> task, int index, AtomicInteger firstFailed) {
+        if (firstFailed.get() < index) return new Outcome<>(null, null, null);
+        try {
+            return new Outcome<>(task.parse(index), null, null);
+        } catch (InputFormatException e) {
+            firstFailed.accumulateAndGet(index, Math::min);
+            return new Outcome<>(null, e, null);
+        } catch (IOException e) {
+            firstFailed.accumulateAndGet(index, Math::min);
+            return new Outcome<>(null, null, e);
+        }
+    }
+
+    private static <T> Outcome<T> join(Future<Outcome<T>> future, String what) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while " + what, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+}
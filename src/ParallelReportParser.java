@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+/**
+ * Parses the [Charger Availability Reports] section on a fork-join pool.
+ *
+ * The section is memory-mapped and split into newline-aligned chunks; each
+ * chunk is parsed into its own partial IntervalStore, and the partials are
+ * merged in file order. If several chunks are invalid, the exception of the
+ * earliest chunk (i.e. the first offending line of the file) is thrown (see
+ * OrderedParallelParse).
+ */
+final class ParallelReportParser {
+
+    private static final Logger logger = Logger.getLogger(ParallelReportParser.class.getName());
+    private static final long MAX_CHUNK_BYTES = 1L << 30; // mappings are limited to 2 GB each
+    private static final int CHUNK_BUFFER_SIZE = 1 << 16;
+    private static final int ALIGN_SCAN_SIZE = 1 << 12;
+
+    private ParallelReportParser() {
+    }
+
+    /** Parses the reports of path starting at byte offset sectionStart into parser.chargerReports. */
+    static void parse(InputParsingValidation parser, Path path, long sectionStart, int parallelism)
+            throws InputFormatException, IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, sectionStart, channel.size(), parallelism);
+            int chunks = bounds.length - 1;
+            logger.info("Parsing reports in " + chunks + " chunk(s) with parallelism " + parallelism);
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<IntervalStore> partials = OrderedParallelParse.run(pool, chunks,
+                        chunk -> parseChunk(parser, channel, bounds[chunk], bounds[chunk + 1]), "parsing reports");
+                for (IntervalStore partial : partials) parser.chargerReports.addAll(partial);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /** Parses one chunk into its own partial store. */
+    private static IntervalStore parseChunk(InputParsingValidation parser, FileChannel channel, long from, long to)
+            throws InputFormatException, IOException {
+        IntervalStore partial = new IntervalStore(parser.stationToChargers);
+        long startAllocated = UptimeMetrics.threadAllocatedBytes();
+        ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        parser.availabilityReports(new ByteLineReader(mapped, CHUNK_BUFFER_SIZE), partial);
+        UptimeMetrics.INSTANCE.addParseAllocated(UptimeMetrics.threadAllocatedBytes() - startAllocated);
+        return partial;
+    }
+
+    /** Splits [from, to) into about `parallelism` chunks, each starting right after a line break. */
+    private static long[] chunkBounds(FileChannel channel, long from, long to, int parallelism) throws IOException {
+        long length = to - from;
+        int chunks = (int) Math.max(parallelism, (length + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        long step = Math.max(1, length / chunks);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(from);
+        long prev = from;
+        for (int i = 1; i < chunks; i++) {
+            long target = Math.max(prev, from + i * step);
+            if (target >= to) break;
+            long aligned = nextLineStart(channel, target, to);
+            if (aligned >= to) break;
+            if (aligned > prev) bounds.add(aligned);
+            prev = aligned;
+        }
+        bounds.add(to);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+            if (i > 0 && result[i] - result[i - 1] > Integer.MAX_VALUE) {
+                throw new IOException("Report line too long to map near offset " + result[i - 1]);
+            }
+        }
+        return result;
+    }
+
+    /** Returns the offset just after the first '\n' or '\r' at or after pos (or `to`). */
+    private static long nextLineStart(FileChannel channel, long pos, long to) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(ALIGN_SCAN_SIZE);
+        while (pos < to) {
+            buf.clear();
+            int n = channel.read(buf, pos);
+            if (n <= 0) return to;
+            for (int i = 0; i < n; i++) {
+                byte c = buf.get(i);
+                if (c == '\n' || c == '\r') return pos + i + 1;
+            }
+            pos += n;
+        }
+        return to;
+    }
+}
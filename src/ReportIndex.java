@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Where a validated file's report lines are, grouped by charger (see
+ * InputParsingValidation.scan). Consecutive report lines of the same charger
+ * form a run, stored once as its first line's byte offset and its line count,
+ * so files that list each charger's reports together cost a few bytes per
+ * charger rather than per line. Reports are materialized lazily: load re-reads
+ * only the runs of the requested stations, in file order, into the parser's
+ * chargerReports, so a single-station query costs one index lookup and a few
+ * positioned reads rather than a full parse.
+ */
+final class ReportIndex {
+
+    private static final Logger logger = Logger.getLogger(ReportIndex.class.getName());
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final InputParsingValidation parser;
+    private final Path path;
+    // Run r (in file order) starts at runOffsets[r] and holds runLines[r] report lines.
+    private final long[] runOffsets;
+    private final int[] runLines;
+    // Charger c (ordinal in the station table) has runs order[first[c]] .. order[first[c + 1] - 1], ascending.
+    private final int[] first;
+    private final int[] order;
+
+    private ReportIndex(InputParsingValidation parser, Path path, long[] runOffsets, int[] runLines,
+                        int[] first, int[] order) {
+        this.parser = parser;
+        this.path = path;
+        this.runOffsets = runOffsets;
+        this.runLines = runLines;
+        this.first = first;
+        this.order = order;
+    }
+
+    /** Number of report lines of a charger (0 for an unknown one). */
+    int reportCount(long chargerId) {
+        int c = parser.stationToChargers.chargerOrdinal(chargerId);
+        return c < 0 ? 0 : lines(c);
+    }
+
+    private int lines(int charger) {
+        int count = 0;
+        for (int i = first[charger]; i < first[charger + 1]; i++) count += runLines[order[i]];
+        return count;
+    }
+
+    /** Reads the reports of the given stations into the parser's chargerReports; unknown stations are skipped. */
+    void load(long... stationIds) throws InputFormatException, IOException {
+        stationIds = Arrays.stream(stationIds).distinct().toArray();
+        StationTable table = parser.stationToChargers;
+        int[] stations = Arrays.stream(stationIds).mapToInt(table::stationOrdinal).filter(s -> s >= 0).toArray();
+        int runs = 0;
+        int count = 0;
+        for (int s : stations) {
+            for (int c = table.chargerFrom(s); c < table.chargerTo(s); c++) {
+                runs += first[c + 1] - first[c];
+                count += lines(c);
+            }
+        }
+        int[] selected = new int[runs];
+        int n = 0;
+        for (int s : stations) {
+            for (int c = table.chargerFrom(s); c < table.chargerTo(s); c++) {
+                System.arraycopy(order, first[c], selected, n, first[c + 1] - first[c]);
+                n += first[c + 1] - first[c];
+            }
+        }
+        Arrays.sort(selected); // run numbers follow the file, so this keeps each charger's reports in input order
+        readRuns(selected);
+        logger.info("Loaded " + count + " reports for " + stationIds.length + " station(s).");
+    }
+
+    /** Parses the report lines of each run, reading the file through a window that is moved forward as needed. */
+    private void readRuns(int[] runs) throws InputFormatException, IOException {
+        ReportLineTokenizer tokenizer = new ReportLineTokenizer();
+        byte[] buf = new byte[READ_BUFFER_SIZE];
+        long windowStart = 0;
+        int windowLength = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (int run : runs) {
+                long offset = runOffsets[run];
+                for (int left = runLines[run]; left > 0; ) {
+                    if (offset >= size) throw new IOException("File changed since it was scanned: " + path);
+                    int from = 0;
+                    int to = -1;
+                    if (offset >= windowStart && offset - windowStart < windowLength) {
+                        from = (int) (offset - windowStart);
+                        to = lineEnd(buf, from, windowLength);
+                    }
+                    while (to < 0) {
+                        // Line not fully in the window: re-read it from its start, growing for very long lines.
+                        if (offset == windowStart && windowLength == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+                        windowStart = offset;
+                        windowLength = read(channel, buf, offset);
+                        from = 0;
+                        to = lineEnd(buf, 0, windowLength);
+                        if (to < 0 && offset + windowLength >= size) to = windowLength; // last line without newline
+                    }
+                    // Blank lines inside a run are skipped, as in the scan.
+                    if (parser.reportLine(buf, from, to, tokenizer, parser.chargerReports)) left--;
+                    offset = windowStart + to + 1;
+                }
+            }
+        }
+    }
+
+    /** End of the line starting at buf[from], or -1 if no line terminator follows within length. */
+    private static int lineEnd(byte[] buf, int from, int length) {
+        for (int i = from; i < length; i++) {
+            if (buf[i] == '\n' || buf[i] == '\r') return i;
+        }
+        return -1;
+    }
+
+    private static int read(FileChannel channel, byte[] buf, long position) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(buf);
+        while (target.hasRemaining()) {
+            int n = channel.read(target, position + target.position());
+            if (n < 0) break;
+        }
+        return target.position();
+    }
+
+    /** Collects runs of same-charger report lines during the scan and groups them by charger. */
+    static final class Builder {
+        private final InputParsingValidation parser;
+        private final Path path;
+        private int[] runChargers = new int[64];
+        private long[] runOffsets = new long[64];
+        private int[] runLines = new int[64];
+        private int size;
+
+        /** Created once parser's stations are read. */
+        Builder(InputParsingValidation parser, Path path) {
+            this.parser = parser;
+            this.path = path;
+        }
+
+        /** Records the report line of chargerId starting at offset; lines arrive in file order. */
+        void add(long chargerId, long offset) {
+            int c = parser.stationToChargers.chargerOrdinal(chargerId);
+            if (size > 0 && runChargers[size - 1] == c) {
+                runLines[size - 1]++;
+                return;
+            }
+            if (size == runChargers.length) {
+                int capacity = size + (size >> 1);
+                runChargers = Arrays.copyOf(runChargers, capacity);
+                runOffsets = Arrays.copyOf(runOffsets, capacity);
+                runLines = Arrays.copyOf(runLines, capacity);
+            }
+            runChargers[size] = c;
+            runOffsets[size] = offset;
+            runLines[size] = 1;
+            size++;
+        }
+
+        /** Counting sort of run numbers by charger ordinal; stable, so each charger's runs stay in file order. */
+        ReportIndex build() {
+            int chargerCount = parser.stationToChargers.chargerCount();
+            int[] first = new int[chargerCount + 1];
+            for (int r = 0; r < size; r++) first[runChargers[r] + 1]++;
+            for (int c = 0; c < chargerCount; c++) first[c + 1] += first[c];
+            int[] next = Arrays.copyOf(first, chargerCount);
+            int[] order = new int[size];
+            for (int r = 0; r < size; r++) order[next[runChargers[r]]++] = r;
+            return new ReportIndex(parser, path, runOffsets, runLines, first, order);
+        }
+    }
+}
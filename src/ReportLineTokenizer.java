@@ -0,0 +1,108 @@
+/**
+ * Allocation-free tokenizer for availability report lines
+ * ("<Charger ID> <start> <end> <true|false>") working directly on bytes.
+ *
+ * Only the canonical form (plain ASCII digits, true/false in any case) is
+ * handled here. Anything else returns SLOW_PATH so the caller can re-parse the
+ * line with the String-based routines, which keeps error behavior identical.
+ */
+final class ReportLineTokenizer {
+
+    static final int BLANK = 0;
+    static final int PARSED = 1;
+    static final int SLOW_PATH = 2;
+
+    private static final long MAX_UNSIGNED_DIV_10 = Long.divideUnsigned(-1L, 10);
+
+    long chargerId;
+    long start;
+    long end;
+    boolean up;
+
+    private final int[] tokenStart = new int[4];
+    private final int[] tokenEnd = new int[4];
+
+    /** Tokenizes b[from, to); on PARSED the public fields hold the line's values. */
+    int tokenize(byte[] b, int from, int to) {
+        // String.trim(): strip bytes <= ' ' at both ends
+        while (from < to && (b[from] & 0xFF) <= ' ') from++;
+        while (to > from && (b[to - 1] & 0xFF) <= ' ') to--;
+        if (from == to) return BLANK;
+
+        int count = 0;
+        int i = from;
+        while (i < to) {
+            if (count == 4) return SLOW_PATH;
+            tokenStart[count] = i;
+            while (i < to && !isSeparator(b[i])) {
+                if (b[i] < ' ') return SLOW_PATH; // negative bytes (non-ASCII) included
+                i++;
+            }
+            tokenEnd[count++] = i;
+            while (i < to && isSeparator(b[i])) i++;
+        }
+        if (count != 4) return SLOW_PATH;
+
+        long id = parseId(b, tokenStart[0], tokenEnd[0]);
+        if (id < 0) return SLOW_PATH;
+        if (!parseTime(b, tokenStart[1], tokenEnd[1], true)) return SLOW_PATH;
+        if (!parseTime(b, tokenStart[2], tokenEnd[2], false)) return SLOW_PATH;
+        int flag = parseBoolean(b, tokenStart[3], tokenEnd[3]);
+        if (flag < 0) return SLOW_PATH;
+
+        chargerId = id;
+        up = flag == 1;
+        return PARSED;
+    }
+
+    /** Regex \s within a line: space, tab, vertical tab, form feed. */
+    private static boolean isSeparator(byte c) {
+        return c == ' ' || c == '\t' || c == 0x0B || c == '\f';
+    }
+
+    /** Unsigned 32-bit ID, or -1 if the token is not in canonical form / out of range. */
+    private static long parseId(byte[] b, int from, int to) {
+        int len = to - from;
+        if (len == 0 || len > 10) return -1;
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v > 0xFFFFFFFFL ? -1 : v;
+    }
+
+    /** Unsigned 64-bit time into start or end; false if not canonical or above 2^64 - 1. */
+    private boolean parseTime(byte[] b, int from, int to, boolean isStart) {
+        int len = to - from;
+        if (len == 0 || len > 20) return false;
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return false;
+            if (Long.compareUnsigned(v, MAX_UNSIGNED_DIV_10) > 0) return false;
+            long next = v * 10 + d;
+            if (Long.compareUnsigned(next, v * 10) < 0) return false; // wrapped past 2^64 - 1
+            v = next;
+        }
+        if (isStart) start = v;
+        else end = v;
+        return true;
+    }
+
+    /** 1 for true, 0 for false (ASCII case-insensitive), -1 otherwise. */
+    private static int parseBoolean(byte[] b, int from, int to) {
+        if (matchesIgnoreCase(b, from, to, "true")) return 1;
+        if (matchesIgnoreCase(b, from, to, "false")) return 0;
+        return -1;
+    }
+
+    private static boolean matchesIgnoreCase(byte[] b, int from, int to, String word) {
+        if (to - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if ((b[from + i] | 0x20) != word.charAt(i)) return false;
+        }
+        return true;
+    }
+}
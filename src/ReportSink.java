@@ -0,0 +1,18 @@
+import java.io.IOException;
+
+/**
+ * Receives validated availability reports from the parser, one at a time, in file order.
+ */
+interface ReportSink {
+
+    /** Accepts interval [start, end) (unsigned, start < end) reported for a known charger. */
+    void add(long chargerId, long start, long end, boolean up) throws IOException;
+
+    /**
+     * Same as add, with the charger's ordinal in the parser's station table already
+     * resolved by validation; sinks keyed by that ordinal override this to skip the lookup.
+     */
+    default void add(int charger, long chargerId, long start, long end, boolean up) throws IOException {
+        add(chargerId, start, end, up);
+    }
+}
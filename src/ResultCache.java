@@ -0,0 +1,296 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of per-station results for repeated runs.
+ *
+ * Each entry holds every station's uptime together with a hash of the data it
+ * was computed from (the station's chargers and their reports), and is keyed
+ * by the byte length and a 64-bit content hash of the input file. Both are
+ * stored in the entry and checked on a hit, so an identical input is answered
+ * straight from its entry without parsing. Nothing else is checked: two inputs
+ * of the same length whose 64-bit hashes collide are answered with the same
+ * results. By chance that takes about 2^32 distinct same-length inputs, but the
+ * hash is not cryptographic and collisions can be constructed on purpose, so
+ * the cache must not be shared with untrusted inputs. Only inputs that
+ * were parsed and validated successfully are ever stored, so a bad file still
+ * fails. On a miss, the most recently used entry supplies the results of
+ * stations whose hash is unchanged. Entries are evicted least recently used
+ * first (by modification time, refreshed on every hit) once the directory
+ * exceeds its size bound; the entry just written is always kept.
+ */
+final class ResultCache {
+
+    private static final Logger logger = Logger.getLogger(ResultCache.class.getName());
+    static final byte[] MAGIC = "SUCACHE2".getBytes(StandardCharsets.US_ASCII);
+    private static final String SUFFIX = ".res";
+    private static final int HASH_CHUNK_SIZE = 1 << 20;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final Path dir;
+    private final long maxBytes;
+
+    ResultCache(Path dir, long maxBytes) throws IOException {
+        if (maxBytes < 1) throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(dir);
+    }
+
+    /** Results of one run: stations in ascending ID order with their data hashes and uptimes. */
+    static final class Results {
+        final long[] stationIds;
+        final long[] hashes;
+        final int[] uptimes;
+
+        Results(long[] stationIds, long[] hashes, int[] uptimes) {
+            this.stationIds = stationIds;
+            this.hashes = hashes;
+            this.uptimes = uptimes;
+        }
+
+        /** Cached uptime of the station if its data hash is unchanged, otherwise -1. */
+        int uptime(long stationId, long hash) {
+            int i = Arrays.binarySearch(stationIds, stationId);
+            return i >= 0 && hashes[i] == hash ? uptimes[i] : -1;
+        }
+
+        void print(UptimeWriter.Format format) {
+            try (UptimeWriter out = UptimeWriter.toStdout(format)) {
+                for (int i = 0; i < stationIds.length; i++) out.write(stationIds[i], uptimes[i]);
+            }
+        }
+    }
+
+    /** Identity of an input's content: its byte length and 64-bit hash. */
+    static final class Key {
+        final long length;
+        final long hash;
+
+        Key(long length, long hash) {
+            this.length = length;
+            this.hash = hash;
+        }
+
+        /** Entry file name, without suffix. */
+        @Override
+        public String toString() {
+            return String.format("%016x-%016x", length, hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).length == length && ((Key) o).hash == hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(length) * 31 + Long.hashCode(hash);
+        }
+    }
+
+    /** Key of the input's current content. */
+    static Key key(Path input) throws IOException {
+        Hasher hasher = new Hasher();
+        long length;
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            length = channel.size();
+            ByteBuffer buf = ByteBuffer.allocate(HASH_CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (channel.read(buf) >= 0) {
+                buf.flip();
+                while (buf.remaining() >= 8) hasher.add(buf.getLong());
+                buf.compact();
+            }
+            buf.flip();
+            while (buf.hasRemaining()) hasher.add(buf.get());
+        }
+        hasher.add(length);
+        return new Key(length, hasher.value());
+    }
+
+    /**
+     * The entry for key, marking it as recently used; null if there is none, it is
+     * unreadable, or it was stored for a different input length or hash.
+     */
+    Results get(Key key) {
+        Path entry = dir.resolve(key + SUFFIX);
+        if (!Files.exists(entry)) return null;
+        Results results = read(entry, key);
+        if (results != null) touch(entry);
+        return results;
+    }
+
+    /** The most recently used entry, for reusing unchanged stations; null if the cache is empty. */
+    Results mostRecent() {
+        List<Path> entries = entriesByRecency();
+        for (Path entry : entries) {
+            Results results = read(entry, null);
+            if (results != null) return results;
+        }
+        return null;
+    }
+
+    /** Stores results under key, then evicts least recently used entries beyond the size bound. */
+    void put(Key key, Results results) {
+        Path entry = dir.resolve(key + SUFFIX);
+        try {
+            Path tmp = Files.createTempFile(dir, "entry-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), IO_BUFFER_SIZE))) {
+                out.write(MAGIC);
+                out.writeLong(key.length);
+                out.writeLong(key.hash);
+                out.writeInt(results.stationIds.length);
+                for (int i = 0; i < results.stationIds.length; i++) {
+                    out.writeInt((int) results.stationIds[i]);
+                    out.writeLong(results.hashes[i]);
+                    out.writeByte(results.uptimes[i]);
+                }
+            }
+            // Concurrent runs only ever see complete entries.
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            evict(entry);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write result cache entry {0}: {1}", new Object[]{entry, e.getMessage()});
+        }
+    }
+
+    /** Reads an entry; if expected is not null, the entry must have been stored under it. */
+    private Results read(Path entry, Key expected) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(entry), IO_BUFFER_SIZE))) {
+            byte[] magic = in.readNBytes(MAGIC.length);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("bad magic");
+            Key stored = new Key(in.readLong(), in.readLong());
+            if (expected != null && !stored.equals(expected)) throw new IOException("stored for input " + stored);
+            int n = in.readInt();
+            if (n < 0) throw new IOException("negative station count");
+            long[] stationIds = new long[n];
+            long[] hashes = new long[n];
+            int[] uptimes = new int[n];
+            for (int i = 0; i < n; i++) {
+                stationIds[i] = Integer.toUnsignedLong(in.readInt());
+                hashes[i] = in.readLong();
+                uptimes[i] = in.readUnsignedByte();
+            }
+            return new Results(stationIds, hashes, uptimes);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable result cache entry {0}: {1}", new Object[]{entry, e.getMessage()});
+            return null;
+        }
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not refresh result cache entry {0}", entry);
+        }
+    }
+
+    /** Entries, most recently used first. */
+    private List<Path> entriesByRecency() {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).forEach(entries::add);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not list result cache {0}", dir);
+            return entries;
+        }
+        entries.sort(Comparator.comparing(ResultCache::lastModified).reversed());
+        return entries;
+    }
+
+    /** Deletes the least recently used entries beyond the size bound, never keep. */
+    private void evict(Path keep) throws IOException {
+        long total = Files.size(keep);
+        for (Path entry : entriesByRecency()) {
+            if (entry.equals(keep)) continue;
+            total += Files.size(entry);
+            if (total > maxBytes) {
+                Files.deleteIfExists(entry);
+                logger.log(Level.INFO, "Evicted result cache entry {0}", entry.getFileName());
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path p) {
+        try {
+            return Files.getLastModifiedTime(p);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Hash of a station's chargers and their reports in stored order. The start and end
+     * columns contribute the hash each IntervalColumns accumulated while it was filled,
+     * so this only touches one word per charger plus the up bits, not every interval.
+     */
+    static long stationHash(InputParsingValidation parser, long stationId) {
+        StationTable table = parser.stationToChargers;
+        int station = table.stationOrdinal(stationId);
+        int from = station < 0 ? 0 : table.chargerFrom(station);
+        int to = station < 0 ? 0 : table.chargerTo(station);
+        Hasher hasher = new Hasher();
+        hasher.add(stationId);
+        hasher.add(to - from);
+        for (int c = from; c < to; c++) {
+            hasher.add(table.chargerId(c));
+            IntervalColumns columns = parser.chargerReports.columns(c);
+            int n = columns == null ? 0 : columns.size();
+            hasher.add(n);
+            if (n == 0) continue;
+            hasher.add(columns.contentHash());
+            for (int w = 0; w < (n + 63) >>> 6; w++) hasher.add(columns.upWord(w) & upMask(n, w));
+        }
+        return hasher.value();
+    }
+
+    /** Bits of up word w that belong to one of n entries. */
+    private static long upMask(int n, int w) {
+        return (w + 1) << 6 <= n ? -1L : (1L << n) - 1;
+    }
+
+    /** Streaming 64-bit hash: multiply-rotate rounds per word, avalanche at the end. Not cryptographic. */
+    static final class Hasher {
+        static final long SEED = 0x2545F4914F6CDD1DL;
+
+        private long h = SEED;
+
+        void add(long word) {
+            h = mix(h, word);
+        }
+
+        /** One round: the state after adding word to state h. */
+        static long mix(long h, long word) {
+            return Long.rotateLeft(h ^ (word * 0x9E3779B97F4A7C15L), 31) * 0xBF58476D1CE4E5B9L;
+        }
+
+        long value() {
+            long z = h;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.List;
+
+/**
+ * K-way merge over interval runs that are each sorted by start: yields the up
+ * intervals (or all intervals) of all runs in unsigned start order using a
+ * binary heap of run heads.
+ */
+final class RunMerger {
+
+    private final IntervalColumns[] runs;
+    private final boolean upOnly;
+    private final int[] pos;
+    /** Head start of each run with the sign bit flipped, so signed comparison is unsigned order. */
+    private final long[] keys;
+    private final int[] heap;
+    private int heapSize;
+
+    /** Current interval after a successful {@link #next()}, and the index of the run it came from. */
+    long start;
+    long end;
+    boolean up;
+    int run;
+
+    /** Merges the up intervals of reports. */
+    RunMerger(List<IntervalColumns> reports) {
+        this(reports, true);
+    }
+
+    /** Merges the up intervals of reports, or all of them if upOnly is false. */
+    RunMerger(List<IntervalColumns> reports, boolean upOnly) {
+        int k = reports.size();
+        this.upOnly = upOnly;
+        runs = reports.toArray(new IntervalColumns[0]);
+        pos = new int[k];
+        keys = new long[k];
+        heap = new int[k];
+        for (int r = 0; r < k; r++) {
+            pos[r] = nextEntry(runs[r], 0);
+            if (pos[r] < runs[r].size()) {
+                keys[r] = runs[r].start(pos[r]) ^ Long.MIN_VALUE;
+                heap[heapSize] = r;
+                siftUp(heapSize++);
+            }
+        }
+    }
+
+    /** True if every run is sorted by start, so the merge applies. */
+    static boolean allSorted(List<IntervalColumns> reports) {
+        for (IntervalColumns c : reports) {
+            if (!c.isSortedByStart()) return false;
+        }
+        return true;
+    }
+
+    /** Advances to the next interval in start order; false when all runs are exhausted. */
+    boolean next() {
+        if (heapSize == 0) return false;
+        int r = heap[0];
+        IntervalColumns run = runs[r];
+        start = run.start(pos[r]);
+        end = run.end(pos[r]);
+        up = run.isUp(pos[r]);
+        this.run = r;
+
+        pos[r] = nextEntry(run, pos[r] + 1);
+        if (pos[r] < run.size()) {
+            keys[r] = run.start(pos[r]) ^ Long.MIN_VALUE;
+        } else {
+            heap[0] = heap[--heapSize];
+        }
+        if (heapSize > 0) siftDown(0);
+        return true;
+    }
+
+    /** Index of the first merged entry at or after i; run.size() if none. */
+    private int nextEntry(IntervalColumns run, int i) {
+        if (!upOnly) return i;
+        int n = run.size();
+        while (i < n && !run.isUp(i)) i++;
+        return i;
+    }
+
+    private void siftUp(int i) {
+        int r = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[heap[parent]] <= keys[r]) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = r;
+    }
+
+    private void siftDown(int i) {
+        int r = heap[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && keys[heap[child + 1]] < keys[heap[child]]) child++;
+            if (keys[r] <= keys[heap[child]]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+}
@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Parses report shards (e.g. one file per feed and day) concurrently into one store.
+ *
+ * Every shard is validated against the stations already loaded into the parser,
+ * so a report for a charger that no station defines fails the run whichever
+ * shard it is in. Each shard is parsed into its own partial IntervalStore and the
+ * partials are appended in shard (path) order, so every charger's reports keep
+ * the same order as a sequential parse: snapshots and cache hashes are stable,
+ * and shards that are each in time order give sorted per-charger runs. If several
+ * shards are invalid, the error of the first one in that order is thrown (see
+ * OrderedParallelParse).
+ */
+final class ShardedReportParser {
+
+    private static final Logger logger = Logger.getLogger(ShardedReportParser.class.getName());
+
+    private ShardedReportParser() {
+    }
+
+    /**
+     * Resolves a shard spec: a directory (all regular files in it), a glob on file
+     * names such as "reports/2024-05-01-*.txt", or a single file. Sorted by path.
+     */
+    static List<Path> resolve(String spec) throws IOException {
+        Path path = Path.of(spec);
+        List<Path> shards = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                files.filter(Files::isRegularFile).forEach(shards::add);
+            }
+        } else if (spec.chars().anyMatch(c -> "*?[{".indexOf(c) >= 0)) {
+            Path dir = path.getParent() != null ? path.getParent() : Path.of(".");
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.getFileName());
+            try (Stream<Path> files = Files.list(dir)) {
+                files.filter(f -> Files.isRegularFile(f) && matcher.matches(f.getFileName())).forEach(shards::add);
+            }
+        } else if (Files.isRegularFile(path)) {
+            shards.add(path);
+        }
+        if (shards.isEmpty()) throw new IOException("No report shards found for: " + spec);
+        shards.sort(null);
+        return shards;
+    }
+
+    /** Parses every shard on `parallelism` threads and adds the reports to parser.chargerReports. */
+    static void parse(InputParsingValidation parser, List<Path> shards, int parallelism)
+            throws InputFormatException, IOException {
+        logger.log(Level.INFO, "Parsing {0,number,#} report shard(s) with parallelism {1,number,#}",
+                new Object[]{shards.size(), parallelism});
+        long startNanos = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, shards.size()));
+        try {
+            List<IntervalStore> partials = OrderedParallelParse.run(pool, shards.size(),
+                    shard -> parseShard(parser, shards.get(shard)), "parsing report shards");
+            for (IntervalStore partial : partials) parser.chargerReports.addAll(partial);
+        } finally {
+            pool.shutdownNow();
+        }
+        UptimeMetrics.INSTANCE.addParse(System.nanoTime() - startNanos, 0);
+        logger.info("Report shards parsed successfully.");
+    }
+
+    /** Parses one shard into its own partial store. */
+    private static IntervalStore parseShard(InputParsingValidation parser, Path path)
+            throws InputFormatException, IOException {
+        IntervalStore partial = new IntervalStore(parser.stationToChargers);
+        long startAllocated = UptimeMetrics.threadAllocatedBytes();
+        try {
+            parser.parseShard(path, partial);
+        } catch (InputFormatException e) {
+            logger.log(Level.WARNING, "Invalid report shard: {0}", path);
+            throw e;
+        }
+        UptimeMetrics.INSTANCE.addParseAllocated(UptimeMetrics.threadAllocatedBytes() - startAllocated);
+        return partial;
+    }
+}
@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary columnar snapshot of parsed input, so unchanged data can be reloaded
+ * without re-parsing the text file.
+ *
+ * Layout (big-endian):
+ *   magic "SUSNAP01", int flags
+ *   int stationCount, then per station: int stationId, int chargerCount, int[] chargerIds
+ *   per charger (in station order): int intervalCount, then the columns
+ *     start[] and end[] as packed unsigned longs, or with FLAG_DELTA as
+ *     varint(zigzag(start - previous start)) and varint(end - start) per interval,
+ *     and the up bitset as ceil(count / 64) longs
+ *   long CRC32C of all preceding bytes
+ *
+ * Both directions go through FileChannel: writes are staged in a direct buffer,
+ * reads walk the file through memory-mapped segments.
+ */
+final class Snapshot {
+
+    private static final Logger logger = Logger.getLogger(Snapshot.class.getName());
+    private static final byte[] MAGIC = {'S', 'U', 'S', 'N', 'A', 'P', '0', '1'};
+    static final int FLAG_DELTA = 1;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final long MAP_SEGMENT_SIZE = 1L << 30;
+
+    private Snapshot() {
+    }
+
+    /** True if the file starts with the snapshot magic (text inputs never do). */
+    static boolean isSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(MAGIC.length);
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // keep reading until the magic length or EOF
+            }
+            return !head.hasRemaining() && head.flip().equals(ByteBuffer.wrap(MAGIC));
+        }
+    }
+
+    /** Writes the parsed stations and intervals to path. */
+    static void write(InputParsingValidation parser, Path path, boolean delta) throws IOException {
+        logger.info("Writing snapshot " + path + (delta ? " (delta-encoded)" : ""));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.ensure(MAGIC.length + 8);
+            out.buf.put(MAGIC).putInt(delta ? FLAG_DELTA : 0).putInt(parser.stationToChargers.size());
+
+            StationTable table = parser.stationToChargers;
+            int[] chargerOrder = new int[table.chargerCount()];
+            int written = 0;
+            for (long stationId : table.stationIds()) {
+                int station = table.stationOrdinal(stationId);
+                out.ensure(8);
+                out.buf.putInt((int) stationId).putInt(table.chargerTo(station) - table.chargerFrom(station));
+                for (int c = table.chargerFrom(station); c < table.chargerTo(station); c++) {
+                    out.ensure(4);
+                    out.buf.putInt((int) table.chargerId(c));
+                    chargerOrder[written++] = c;
+                }
+            }
+
+            for (int c : chargerOrder) {
+                IntervalColumns columns = parser.chargerReports.columns(c);
+                int n = columns == null ? 0 : columns.size();
+                out.ensure(4);
+                out.buf.putInt(n);
+                if (n == 0) continue;
+                if (delta) writeDelta(out, columns);
+                else writePacked(out, columns);
+                for (int w = 0; w < (n + 63) >>> 6; w++) {
+                    out.ensure(8);
+                    out.buf.putLong(columns.upWord(w));
+                }
+            }
+            out.finish();
+        }
+    }
+
+    private static void writePacked(Output out, IntervalColumns columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            out.ensure(8);
+            out.buf.putLong(columns.start(i));
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            out.ensure(8);
+            out.buf.putLong(columns.end(i));
+        }
+    }
+
+    private static void writeDelta(Output out, IntervalColumns columns) throws IOException {
+        long prev = 0;
+        for (int i = 0; i < columns.size(); i++) {
+            long diff = columns.start(i) - prev;
+            out.putVarLong((diff << 1) ^ (diff >> 63)); // zigzag: unsorted runs give negative deltas
+            out.putVarLong(columns.end(i) - columns.start(i));
+            prev = columns.start(i);
+        }
+    }
+
+    /** Loads a snapshot into a fresh parser; InputFormatException if it is corrupt. */
+    static InputParsingValidation read(Path path) throws InputFormatException, IOException {
+        logger.info("Loading snapshot " + path);
+        InputParsingValidation parser = new InputParsingValidation();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Input in = new Input(channel);
+            try {
+                byte[] magic = new byte[MAGIC.length];
+                in.ensure(MAGIC.length + 8);
+                in.buf.get(magic);
+                if (!ByteBuffer.wrap(magic).equals(ByteBuffer.wrap(MAGIC))) {
+                    throw new InputFormatException("Not a snapshot file: " + path);
+                }
+                boolean delta = (in.buf.getInt() & FLAG_DELTA) != 0;
+                int stations = in.buf.getInt();
+                in.require(stations, 8, "station count");
+
+                for (int s = 0; s < stations; s++) {
+                    in.ensure(8);
+                    long stationId = Integer.toUnsignedLong(in.buf.getInt());
+                    int count = in.buf.getInt();
+                    in.require(count, 4, "charger count");
+                    long[] chargers = new long[count];
+                    for (int c = 0; c < count; c++) {
+                        in.ensure(4);
+                        chargers[c] = Integer.toUnsignedLong(in.buf.getInt());
+                    }
+                    parser.addStation(stationId, chargers);
+                }
+
+                // Interval blocks follow in the order the chargers were listed, i.e. ordinal order.
+                for (int c = 0; c < parser.stationToChargers.chargerCount(); c++) {
+                    in.ensure(4);
+                    int n = in.buf.getInt();
+                    // At least two one-byte varints per delta-encoded interval, two longs per packed one.
+                    in.require(n, delta ? 2 : 16, "interval count");
+                    if (n == 0) continue;
+                    long[] starts = new long[n];
+                    long[] ends = new long[n];
+                    if (delta) readDelta(in, starts, ends);
+                    else readPacked(in, starts, ends);
+                    long[] upBits = new long[(n + 63) >>> 6];
+                    readLongs(in, upBits);
+                    parser.chargerReports.set(c, new IntervalColumns(starts, ends, upBits, n));
+                }
+                in.verifyChecksum();
+            } catch (java.nio.BufferUnderflowException e) {
+                throw new InputFormatException("Corrupt snapshot: truncated file " + path);
+            }
+        }
+        logger.info("Snapshot loaded.");
+        return parser;
+    }
+
+    private static void readPacked(Input in, long[] starts, long[] ends) throws IOException {
+        readLongs(in, starts);
+        readLongs(in, ends);
+    }
+
+    private static void readLongs(Input in, long[] target) throws IOException {
+        int off = 0;
+        while (off < target.length) {
+            in.ensure(8);
+            int n = Math.min(target.length - off, in.buf.remaining() / 8);
+            in.buf.asLongBuffer().get(target, off, n);
+            in.buf.position(in.buf.position() + n * 8);
+            off += n;
+        }
+    }
+
+    private static void readDelta(Input in, long[] starts, long[] ends) throws IOException {
+        long prev = 0;
+        for (int i = 0; i < starts.length; i++) {
+            long zigzag = in.getVarLong();
+            prev += (zigzag >>> 1) ^ -(zigzag & 1);
+            starts[i] = prev;
+            ends[i] = prev + in.getVarLong();
+        }
+    }
+
+    /** Buffered channel writer that checksums everything it writes. */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buf.remaining() < bytes) flush();
+        }
+
+        void putVarLong(long v) throws IOException {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buf.put((byte) v);
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            crc.update(buf.duplicate());
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+
+        void finish() throws IOException {
+            flush();
+            buf.putLong(crc.getValue()).flip();
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+    }
+
+    /** Reader over consecutive memory-mapped segments that checksums what it consumes. */
+    private static final class Input {
+        private final FileChannel channel;
+        private final long size;
+        private final CRC32C crc = new CRC32C();
+        private MappedByteBuffer buf;
+        private long base;
+        private int crcMark;
+
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        /** Makes at least `bytes` readable in buf (fewer only at end of file). */
+        void ensure(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return;
+            long pos = base + buf.position();
+            if (pos + bytes > size - 8) throw new java.nio.BufferUnderflowException(); // the CRC is not data
+            checksumConsumed();
+            map(pos);
+        }
+
+        /**
+         * Checks a count read from the file before anything is allocated for it: it must be
+         * non-negative and `count` items of at least `itemBytes` each must fit before the CRC.
+         */
+        void require(int count, int itemBytes, String what) throws InputFormatException {
+            long left = size - 8 - (base + buf.position());
+            if (count < 0 || (long) count * itemBytes > left) {
+                throw new InputFormatException("Corrupt snapshot: " + what + " " + count + " exceeds the file.");
+            }
+        }
+
+        long getVarLong() throws IOException {
+            ensure((int) Math.min(10, size - 8 - (base + buf.position())));
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf.get();
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+            throw new java.nio.BufferUnderflowException();
+        }
+
+        void verifyChecksum() throws IOException, InputFormatException {
+            long pos = base + buf.position();
+            if (pos != size - 8) throw new InputFormatException("Corrupt snapshot: unexpected trailing data.");
+            checksumConsumed();
+            map(pos);
+            if (buf.getLong() != crc.getValue()) {
+                throw new InputFormatException("Corrupt snapshot: checksum mismatch.");
+            }
+        }
+
+        private void checksumConsumed() {
+            ByteBuffer consumed = buf.duplicate();
+            consumed.position(crcMark).limit(buf.position());
+            crc.update(consumed);
+        }
+
+        private void map(long pos) throws IOException {
+            base = pos;
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(MAP_SEGMENT_SIZE, size - pos));
+            crcMark = 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.util.Arrays;
+
+/**
+ * The [Stations] section: station -> charger lists and the reverse charger ->
+ * station index. IDs are unsigned 32-bit values kept as ints: stations and
+ * chargers are mapped to dense ordinals by IdIndex. A station's chargers are
+ * added right after it, so they are the contiguous ordinal range
+ * [chargerFrom(s), chargerTo(s)) and hot paths iterate it without copying;
+ * each charger's station is one int. Safe for concurrent readers once filled.
+ */
+public final class StationTable {
+
+    private final IdIndex stations = new IdIndex();
+    private final IdIndex chargers = new IdIndex();
+    private int[] firstChargers = new int[8];
+    private int[] chargerStations = new int[8];
+
+    /** Number of stations. */
+    public int size() {
+        return stations.size();
+    }
+
+    public boolean containsStation(long stationId) {
+        return stations.get(stationId) >= 0;
+    }
+
+    public boolean containsCharger(long chargerId) {
+        return chargers.get(chargerId) >= 0;
+    }
+
+    /** Adds a station with the given chargers; throws IllegalArgumentException, adding nothing, on a duplicate ID. */
+    public void put(long stationId, long... chargerIds) {
+        if (containsStation(stationId)) throw new IllegalArgumentException("Station ID is not unique: " + stationId);
+        for (int i = 0; i < chargerIds.length; i++) {
+            boolean repeated = containsCharger(chargerIds[i]);
+            for (int j = 0; j < i && !repeated; j++) repeated = chargerIds[j] == chargerIds[i];
+            if (repeated) {
+                throw new IllegalArgumentException("Charger ID is not unique across all stations: " + chargerIds[i]);
+            }
+        }
+        int station = addStation(stationId);
+        for (long cid : chargerIds) addCharger(station, cid);
+    }
+
+    /** Adds a station without chargers and returns its ordinal, or -1 if the ID is taken. */
+    int addStation(long stationId) {
+        int station = stations.add(stationId);
+        if (station < 0) return -1;
+        if (station == firstChargers.length) firstChargers = Arrays.copyOf(firstChargers, station * 2);
+        firstChargers[station] = chargers.size();
+        return station;
+    }
+
+    /**
+     * Appends a charger to the station with the given ordinal, which must be the last one added
+     * (IllegalStateException otherwise); false if the charger ID is taken.
+     */
+    boolean addCharger(int station, long chargerId) {
+        if (station != stations.size() - 1) {
+            throw new IllegalStateException("Chargers can only be added to the last added station.");
+        }
+        int charger = chargers.add(chargerId);
+        if (charger < 0) return false;
+        if (charger == chargerStations.length) chargerStations = Arrays.copyOf(chargerStations, charger * 2);
+        chargerStations[charger] = station;
+        return true;
+    }
+
+    /** Copy of the station's charger IDs in definition order, or null for an unknown station. */
+    public long[] chargers(long stationId) {
+        int station = stations.get(stationId);
+        if (station < 0) return null;
+        long[] ids = new long[chargerTo(station) - chargerFrom(station)];
+        for (int i = 0; i < ids.length; i++) ids[i] = chargers.id(chargerFrom(station) + i);
+        return ids;
+    }
+
+    /** First charger ordinal of the station with the given ordinal. */
+    int chargerFrom(int station) {
+        return firstChargers[station];
+    }
+
+    /** End (exclusive) of the charger ordinals of the station with the given ordinal. */
+    int chargerTo(int station) {
+        return station + 1 < stations.size() ? firstChargers[station + 1] : chargers.size();
+    }
+
+    /** Station of the charger, or -1 if the charger is not defined. */
+    public long stationOf(long chargerId) {
+        int charger = chargers.get(chargerId);
+        return charger < 0 ? -1 : stations.id(chargerStations[charger]);
+    }
+
+    /** All station IDs in ascending order. */
+    public long[] stationIds() {
+        long[] ids = new long[stations.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = stations.id(i);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /** Dense ordinal (0..size()-1, definition order) of the station, or -1 if it is not defined. */
+    int stationOrdinal(long stationId) {
+        return stations.get(stationId);
+    }
+
+    /** Number of chargers over all stations. */
+    int chargerCount() {
+        return chargers.size();
+    }
+
+    /** The charger with the given ordinal. */
+    long chargerId(int ordinal) {
+        return chargers.id(ordinal);
+    }
+
+    /** Dense ordinal (0..chargerCount()-1, definition order) of the charger, or -1 if it is not defined. */
+    int chargerOrdinal(long chargerId) {
+        return chargers.get(chargerId);
+    }
+
+    /** Same stations with the same chargers in the same order. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StationTable)) return false;
+        StationTable other = (StationTable) o;
+        if (size() != other.size()) return false;
+        for (int s = 0; s < size(); s++) {
+            int t = other.stations.get(stations.id(s));
+            if (t < 0) return false;
+            int n = chargerTo(s) - chargerFrom(s);
+            if (other.chargerTo(t) - other.chargerFrom(t) != n) return false;
+            for (int i = 0; i < n; i++) {
+                if (chargers.id(chargerFrom(s) + i) != other.chargers.id(other.chargerFrom(t) + i)) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int s = 0; s < size(); s++) {
+            int ch = 1;
+            for (int c = chargerFrom(s); c < chargerTo(s); c++) ch = 31 * ch + (int) chargers.id(c);
+            h += Long.hashCode(stations.id(s)) ^ ch;
+        }
+        return h;
+    }
+}
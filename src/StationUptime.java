@@ -1,6 +1,14 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 /**
  * Computes station uptime using merged intervals.
@@ -9,113 +17,293 @@ public class StationUptime {
 
     private static final Logger logger = Logger.getLogger(StationUptime.class.getName());
     private final InputParsingValidation parser;
+    private UptimeWriter.Format outputFormat = UptimeWriter.Format.TEXT;
+    private Path analyticsPath;
+    private ResultCache resultCache;
+    private ResultCache.Key resultCacheKey;
 
     public StationUptime(InputParsingValidation parser) {
         this.parser = parser;
     }
 
+    /**
+     * Makes computeAndPrint(int) also write per-charger analytics (see ChargerAnalytics) as CSV to path,
+     * computed in the same sweep as the station results; null turns it off.
+     */
+    void setAnalyticsOutput(Path path) {
+        this.analyticsPath = path;
+    }
+
+    /**
+     * Makes computeAndPrint(int) reuse the results of stations whose data is unchanged since the
+     * cache's most recent entry, and store this run's results under key; null turns it off.
+     */
+    void setResultCache(ResultCache cache, ResultCache.Key key) {
+        this.resultCache = cache;
+        this.resultCacheKey = key;
+    }
+
+    /** Sets how computeAndPrint writes results; TEXT ("<StationID> <Uptime%>" lines) by default. */
+    void setOutputFormat(UptimeWriter.Format format) {
+        this.outputFormat = format;
+    }
+
     /** Computes uptime for each station & prints it. */
     public void computeAndPrint() {
+        computeAndPrint(1);
+    }
+
+    /**
+     * Computes uptime for each station & prints it, spreading the stations over
+     * `parallelism` fork-join workers. Output stays in ascending station-ID order.
+     */
+    public void computeAndPrint(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
         logger.info("Starting uptime computation for all stations.");
-        List<Long> stations = new ArrayList<>(parser.stationToChargers.keySet());
-        Collections.sort(stations);
+        long[] stations = parser.stationToChargers.stationIds();
+        int[] uptimes = new int[stations.length];
+
+        ChargerAnalytics[] analytics = analyticsPath != null ? new ChargerAnalytics[stations.length] : null;
+        long[] hashes = resultCache != null ? new long[stations.length] : null;
+        IntUnaryOperator station = resultCache != null
+                ? cachedUptime(stations, hashes, resultCache.mostRecent())
+                : i -> computeUptime(stations[i], analytics, i);
 
-        for (long stationId : stations) {
-            int uptime = computeUptime(stationId);
-            System.out.println(stationId + " " + uptime);
-            logger.info("Computed uptime for station " + stationId + ": " + uptime + "%");
+        long computeStart = System.nanoTime();
+        if (parallelism == 1) {
+            for (int i = 0; i < stations.length; i++) uptimes[i] = station.applyAsInt(i);
+        } else {
+            computeParallel(uptimes, station, parallelism);
+        }
+        long outputStart = System.nanoTime();
+        UptimeMetrics.INSTANCE.addCompute(outputStart - computeStart);
+
+        try (UptimeWriter out = UptimeWriter.toStdout(outputFormat)) {
+            for (int i = 0; i < stations.length; i++) {
+                out.write(stations[i], uptimes[i]);
+                if (logger.isLoggable(Level.INFO)) {
+                    logger.log(Level.INFO, "Computed uptime for station {0,number,#}: {1,number,#}%",
+                            new Object[]{stations[i], uptimes[i]});
+                }
+            }
         }
+        if (analytics != null) {
+            try {
+                ChargerAnalytics.writeCsv(analyticsPath, stations, analytics);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (resultCache != null) resultCache.put(resultCacheKey, new ResultCache.Results(stations, hashes, uptimes));
+        UptimeMetrics.INSTANCE.addOutput(System.nanoTime() - outputStart);
 
         logger.info("Completed uptime computation.");
     }
 
+    /** Computes and prints only the given stations, in ascending ID order. */
+    public void computeAndPrint(long[] stationIds) {
+        long[] stations = Arrays.stream(stationIds).distinct().sorted().toArray();
+        try (UptimeWriter out = UptimeWriter.toStdout(outputFormat)) {
+            for (long stationId : stations) out.write(stationId, computeUptime(stationId));
+        }
+    }
+
+    /** Prints each station's uptime over the window [from, to) instead of its whole reporting span. */
+    public void computeAndPrint(long from, long to) {
+        logger.info("Starting windowed uptime computation for [" + Long.toUnsignedString(from) + ", "
+                + Long.toUnsignedString(to) + ").");
+        UptimeIndex index = UptimeIndex.build(parser);
+        try (UptimeWriter out = UptimeWriter.toStdout(outputFormat)) {
+            for (long stationId : parser.stationToChargers.stationIds()) out.write(stationId, index.uptime(stationId, from, to));
+        }
+        logger.info("Completed windowed uptime computation.");
+    }
+
+
+    /**
+     * Station i's uptime from the previous results if its data hash is unchanged, computed otherwise;
+     * records every station's hash in hashes.
+     */
+    private IntUnaryOperator cachedUptime(long[] stations, long[] hashes, ResultCache.Results previous) {
+        return i -> {
+            hashes[i] = ResultCache.stationHash(parser, stations[i]);
+            int cached = previous == null ? -1 : previous.uptime(stations[i], hashes[i]);
+            return cached >= 0 ? cached : computeUptime(stations[i]);
+        };
+    }
+
+    /** Each station only reads shared, already parsed data, so stations can be computed independently. */
+    private void computeParallel(int[] uptimes, IntUnaryOperator station, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, uptimes.length).parallel()
+                    .forEach(i -> uptimes[i] = station.applyAsInt(i))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing uptime", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     /** Computes uptime % for a station. */
     int computeUptime(long stationId) {
-        List<Interval> all = new ArrayList<>();
-        List<Interval> up = new ArrayList<>();
+        return computeUptime(stationId, null, 0);
+    }
 
-        List<Long> chargers = parser.stationToChargers.get(stationId);
-        if (chargers == null || chargers.isEmpty()) {
-            logger.warning("Station " + stationId + " has no chargers defined. Returning uptime 0.");
+    /** Computes uptime % for a station; with analytics != null, also stores its charger analytics at slot. */
+    private int computeUptime(long stationId, ChargerAnalytics[] analytics, int slot) {
+        StationTable table = parser.stationToChargers;
+        int station = table.stationOrdinal(stationId);
+        if (station < 0 || table.chargerFrom(station) == table.chargerTo(station)) {
+            logger.log(Level.WARNING, "Station {0,number,#} has no chargers defined. Returning uptime 0.", stationId);
             return 0;
         }
 
-        for (long cid : chargers) {
-            if (parser.chargerAll.containsKey(cid))
-                all.addAll(parser.chargerAll.get(cid));
-            if (parser.chargerUp.containsKey(cid))
-                up.addAll(parser.chargerUp.get(cid));
+        if (analytics != null) {
+            ChargerAnalytics result = ChargerAnalytics.sweep(table, station, parser.chargerReports);
+            analytics[slot] = result;
+            if (!result.hasReports()) {
+                logger.log(Level.WARNING, "Station {0,number,#} has chargers but no availability data. "
+                        + "Returning uptime 0.", stationId);
+                return 0;
+            }
+            return uptimePercent(stationId, result.span(), result.available());
         }
 
-        if (all.isEmpty()) {
-            logger.warning("Station " + stationId + " has chargers but no availability data. Returning uptime 0.");
+        List<IntervalColumns> reports = stationReports(parser, station);
+
+        if (reports.isEmpty()) {
+            logger.log(Level.WARNING, "Station {0,number,#} has chargers but no availability data. Returning uptime 0.", stationId);
             return 0;
         }
 
-        BigInteger reporting = computeSpan(all);
-        BigInteger available = mergedLength(up);
+        if (UptimeMetrics.INSTANCE.isDetailed()) return measuredUptime(stationId, reports);
+        return uptimePercent(stationId, computeSpan(reports), mergedLength(reports));
+    }
+
+    /** computeUptime's result, also recording the station's size, merge time and allocation. */
+    private int measuredUptime(long stationId, List<IntervalColumns> reports) {
+        long startAllocated = UptimeMetrics.threadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        long available = mergedLength(reports);
+        long mergeNanos = System.nanoTime() - startNanos;
+
+        long intervals = 0;
+        for (IntervalColumns c : reports) intervals += c.size();
+        UptimeMetrics.INSTANCE.addStation(intervals, mergeNanos, UptimeMetrics.threadAllocatedBytes() - startAllocated);
+        return uptimePercent(stationId, computeSpan(reports), available);
+    }
 
-        if (reporting.equals(BigInteger.ZERO)) {
-            logger.warning("Station " + stationId + " reporting time is zero. Returning uptime 0.");
+    /** Uptime % from a station's reporting span and up time (both unsigned), clamped to [0, 100]. */
+    static int uptimePercent(long stationId, long reporting, long available) {
+        if (reporting == 0) {
+            logger.log(Level.WARNING, "Station {0,number,#} reporting time is zero. Returning uptime 0.", stationId);
             return 0;
         }
 
-        BigInteger pct = available.multiply(BigInteger.valueOf(100))
-                .divide(reporting);
+        long pct = percent(available, reporting);
 
-        if (pct.compareTo(BigInteger.ZERO) < 0) {
-            logger.warning("Negative uptime computed for station " + stationId + ". Clamping to 0.");
+        if (pct < 0) {
+            logger.log(Level.WARNING, "Negative uptime computed for station {0,number,#}. Clamping to 0.", stationId);
             return 0;
         }
-        if (pct.compareTo(BigInteger.valueOf(100)) > 0) {
-            logger.warning("Uptime above 100% computed for station " + stationId + ". Clamping to 100.");
+        if (pct > 100) {
+            logger.log(Level.WARNING, "Uptime above 100% computed for station {0,number,#}. Clamping to 100.", stationId);
             return 100;
         }
 
-        return pct.intValue();
+        return (int) pct;
     }
 
-    /** Returns the union length of merged intervals. */
-    private BigInteger mergedLength(List<Interval> intervals) {
-        if (intervals.isEmpty()) return BigInteger.ZERO;
+    /**
+     * floor(available * 100 / reporting) for unsigned 64-bit lengths; reporting must be non-zero.
+     * Saturates at Long.MAX_VALUE, so callers can clamp to 100.
+     */
+    static long percent(long available, long reporting) {
+        if (available >= 0 && reporting > 0) {
+            // Common case: available * 100 does not overflow.
+            if (available <= Long.MAX_VALUE / 100) return available * 100 / reporting;
+            // Both lengths fit in 63 bits but the product does not: split available = q * reporting + r.
+            long q = available / reporting;
+            long rest = remainderPercent(available % reporting, reporting);
+            return q <= (Long.MAX_VALUE - rest) / 100 ? q * 100 + rest : Long.MAX_VALUE;
+        }
+        // A length of 2^63 or more.
+        return percentExact(available, reporting);
+    }
 
-        intervals.sort((a, b) -> {
-            int cmp = a.start.compareTo(b.start);
-            return (cmp != 0) ? cmp : a.end.compareTo(b.end);
-        });
+    /** floor(r * 100 / d) for 0 <= r < d, by bisection over [0, 99] comparing 128-bit products. */
+    private static long remainderPercent(long r, long d) {
+        long targetHigh = Math.multiplyHigh(r, 100);
+        long targetLow = r * 100;
+        long lo = 0;
+        long hi = 99;
+        while (lo < hi) {
+            long p = (lo + hi + 1) >>> 1;
+            long high = Math.multiplyHigh(p, d);
+            boolean fits = high < targetHigh
+                    || high == targetHigh && Long.compareUnsigned(p * d, targetLow) <= 0;
+            if (fits) lo = p;
+            else hi = p - 1;
+        }
+        return lo;
+    }
 
-        BigInteger total = BigInteger.ZERO;
-        BigInteger cs = intervals.get(0).start;
-        BigInteger ce = intervals.get(0).end;
+    /** BigInteger version of percent, for lengths with bit 63 set. */
+    static long percentExact(long available, long reporting) {
+        // Both lengths are unsigned 64-bit; available * 100 may need up to 71 bits.
+        BigInteger pct = unsigned(available).multiply(BigInteger.valueOf(100))
+                .divide(unsigned(reporting));
+        return pct.bitLength() < 64 ? pct.longValue() : Long.MAX_VALUE;
+    }
 
-        for (int i = 1; i < intervals.size(); i++) {
-            Interval iv = intervals.get(i);
-            if (iv.start.compareTo(ce) <= 0) {
-                if (iv.end.compareTo(ce) > 0) ce = iv.end;
-            } else {
-                total = total.add(ce.subtract(cs));
-                cs = iv.start;
-                ce = iv.end;
-            }
+    /** Non-empty interval columns of the chargers of the station with the given ordinal (-1: none). */
+    static List<IntervalColumns> stationReports(InputParsingValidation parser, int station) {
+        if (station < 0) return new ArrayList<>(0);
+        StationTable table = parser.stationToChargers;
+        List<IntervalColumns> reports = new ArrayList<>(table.chargerTo(station) - table.chargerFrom(station));
+        for (int c = table.chargerFrom(station); c < table.chargerTo(station); c++) {
+            IntervalColumns columns = parser.chargerReports.columns(c);
+            if (columns != null && columns.size() > 0) reports.add(columns);
         }
-        return total.add(ce.subtract(cs));
+        return reports;
     }
-    /** Computes reporting span: maxEnd - minStart. */
-    private BigInteger computeSpan(List<Interval> intervals) {
-        if (intervals.isEmpty()) return BigInteger.ZERO;
 
-        BigInteger minStart = intervals.get(0).start;
-        BigInteger maxEnd = intervals.get(0).end;
+    /** Returns the union length of the merged up intervals (unsigned). */
+    private long mergedLength(List<IntervalColumns> reports) {
+        return MergedIntervals.unionLength(reports);
+    }
 
-        for (Interval iv : intervals) {
-            if (iv.start.compareTo(minStart) < 0) {
-                minStart = iv.start;
-            }
-            if (iv.end.compareTo(maxEnd) > 0) {
-                maxEnd = iv.end;
-            }
+    /** Computes reporting span: maxEnd - minStart (unsigned). */
+    private long computeSpan(List<IntervalColumns> reports) {
+        return maxEnd(reports) - minStart(reports);
+    }
+
+    /** Earliest start over all reports (unsigned); unsigned max if there are none. */
+    static long minStart(List<IntervalColumns> reports) {
+        long minStart = -1; // unsigned max
+        for (IntervalColumns c : reports) {
+            if (Long.compareUnsigned(c.minStart(), minStart) < 0) minStart = c.minStart();
+        }
+        return minStart;
+    }
+
+    /** Latest end over all reports (unsigned); 0 if there are none. */
+    static long maxEnd(List<IntervalColumns> reports) {
+        long maxEnd = 0;
+        for (IntervalColumns c : reports) {
+            if (Long.compareUnsigned(c.maxEnd(), maxEnd) > 0) maxEnd = c.maxEnd();
         }
+        return maxEnd;
+    }
 
-        return maxEnd.subtract(minStart);
+    private static BigInteger unsigned(long v) {
+        BigInteger bi = BigInteger.valueOf(v & Long.MAX_VALUE);
+        return v < 0 ? bi.setBit(63) : bi;
     }
 }
@@ -0,0 +1,111 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Per-station index answering uptime over arbitrary time windows.
+ *
+ * Built in one pass over the parsed data: for every station it keeps the merged
+ * up-intervals sorted by start with prefix sums of their lengths, plus the
+ * reporting span [minStart, maxEnd). A window query is two binary searches,
+ * i.e. O(log n) in the station's number of merged intervals.
+ *
+ * Within a window [from, to) the reporting time is the part of the window that
+ * lies inside the station's reporting span, so uptime over the full span equals
+ * StationUptime.computeUptime. Times are unsigned 64-bit.
+ */
+public class UptimeIndex {
+
+    private static final int PARALLEL_BATCH_THRESHOLD = 1 << 12;
+
+    private final Map<Long, StationIndex> stations = new HashMap<>();
+
+    private UptimeIndex() {
+    }
+
+    /** Builds the index for every station known to the parser. */
+    public static UptimeIndex build(InputParsingValidation parser) {
+        UptimeIndex index = new UptimeIndex();
+        for (long stationId : parser.stationToChargers.stationIds()) {
+            List<IntervalColumns> reports = StationUptime.stationReports(parser,
+                    parser.stationToChargers.stationOrdinal(stationId));
+            if (!reports.isEmpty()) index.stations.put(stationId, new StationIndex(reports));
+        }
+        return index;
+    }
+
+    /**
+     * Uptime % of the station over [from, to). 0 for unknown stations, stations
+     * without reports, or windows that miss the reporting span.
+     */
+    public int uptime(long stationId, long from, long to) {
+        if (Long.compareUnsigned(from, to) >= 0) {
+            throw new IllegalArgumentException("Window start must be less than window end.");
+        }
+        StationIndex station = stations.get(stationId);
+        return station == null ? 0 : station.uptime(from, to);
+    }
+
+    /** Batch mode: answers windows[i] = (stationIds[i], from[i], to[i]), in parallel for large batches. */
+    public int[] uptime(long[] stationIds, long[] from, long[] to) {
+        if (stationIds.length != from.length || from.length != to.length) {
+            throw new IllegalArgumentException("Batch arrays must have the same length.");
+        }
+        int[] result = new int[stationIds.length];
+        IntStream range = IntStream.range(0, stationIds.length);
+        if (stationIds.length >= PARALLEL_BATCH_THRESHOLD) range = range.parallel();
+        range.forEach(i -> result[i] = uptime(stationIds[i], from[i], to[i]));
+        return result;
+    }
+
+    /** Index of one station. */
+    private static final class StationIndex {
+        private final long minStart;
+        private final long maxEnd;
+        private final long[] starts;
+        private final long[] ends;
+        // prefix[i] = total length of intervals 0..i-1
+        private final long[] prefix;
+        private final int size;
+
+        StationIndex(List<IntervalColumns> reports) {
+            minStart = StationUptime.minStart(reports);
+            maxEnd = StationUptime.maxEnd(reports);
+            MergedIntervals merged = MergedIntervals.ofUp(reports);
+            starts = merged.starts;
+            ends = merged.ends;
+            size = merged.size;
+            prefix = new long[size + 1];
+            for (int i = 0; i < size; i++) prefix[i + 1] = prefix[i] + (ends[i] - starts[i]);
+        }
+
+        int uptime(long from, long to) {
+            long lo = Long.compareUnsigned(from, minStart) > 0 ? from : minStart;
+            long hi = Long.compareUnsigned(to, maxEnd) < 0 ? to : maxEnd;
+            if (Long.compareUnsigned(lo, hi) >= 0) return 0;
+
+            long available = coveredBefore(hi) - coveredBefore(lo);
+            return (int) Math.min(100, StationUptime.percent(available, hi - lo));
+        }
+
+        /** Up time in [0, t). */
+        private long coveredBefore(long t) {
+            int i = countStartsBefore(t);
+            if (i == 0) return 0;
+            long end = Long.compareUnsigned(ends[i - 1], t) < 0 ? ends[i - 1] : t;
+            return prefix[i - 1] + (end - starts[i - 1]);
+        }
+
+        /** Number of intervals whose start is before t (unsigned binary search). */
+        private int countStartsBefore(long t) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Long.compareUnsigned(starts[mid], t) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
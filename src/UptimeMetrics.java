@@ -0,0 +1,202 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters and timers for the parse, compute and output phases.
+ *
+ * Hot loops never touch these per line: the parser counts lines locally and
+ * adds them once per section or chunk. Per-station timings (merge time,
+ * intervals, allocated bytes) cost two clock reads per station, so they are
+ * only taken in detailed mode (--metrics). Allocated bytes come from the
+ * per-thread counters of the HotSpot ThreadMXBean, when available.
+ */
+final class UptimeMetrics implements UptimeMetricsMXBean {
+
+    static final UptimeMetrics INSTANCE = new UptimeMetrics();
+    private static final Logger logger = Logger.getLogger(UptimeMetrics.class.getName());
+    private static final String OBJECT_NAME = "StationUptime:type=Metrics";
+
+    private final LongAdder reportLines = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder parseWallNanos = new LongAdder();
+    private final LongAdder parseAllocatedBytes = new LongAdder();
+    private final LongAdder stationsComputed = new LongAdder();
+    private final LongAdder stationIntervals = new LongAdder();
+    private final LongAccumulator maxStationIntervals = new LongAccumulator(Math::max, 0);
+    private final LongAdder stationMergeNanos = new LongAdder();
+    private final LongAccumulator maxStationMergeNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder computeWallNanos = new LongAdder();
+    private final LongAdder computeAllocatedBytes = new LongAdder();
+    private final LongAdder outputWallNanos = new LongAdder();
+    private volatile boolean detailed;
+
+    private UptimeMetrics() {
+    }
+
+    /** Registers the JMX view once; failures are logged, never fatal. */
+    synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(this, name);
+        } catch (JMException e) {
+            logger.warning("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /** Bytes allocated so far by the calling thread, or 0 if the JVM cannot tell. */
+    static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (hotspot.isThreadAllocatedMemoryEnabled()) return hotspot.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    void addReportSection(long lines, long bytes) {
+        reportLines.add(lines);
+        bytesRead.add(bytes);
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    void addParse(long wallNanos, long allocatedBytes) {
+        parseWallNanos.add(wallNanos);
+        parseAllocatedBytes.add(allocatedBytes);
+    }
+
+    void addParseAllocated(long allocatedBytes) {
+        parseAllocatedBytes.add(allocatedBytes);
+    }
+
+    /** Records one station's interval count, merge time and allocation (detailed mode). */
+    void addStation(long intervals, long mergeNanos, long allocatedBytes) {
+        stationsComputed.increment();
+        stationIntervals.add(intervals);
+        maxStationIntervals.accumulate(intervals);
+        stationMergeNanos.add(mergeNanos);
+        maxStationMergeNanos.accumulate(mergeNanos);
+        computeAllocatedBytes.add(allocatedBytes);
+    }
+
+    void addCompute(long wallNanos) {
+        computeWallNanos.add(wallNanos);
+    }
+
+    void addOutput(long wallNanos) {
+        outputWallNanos.add(wallNanos);
+    }
+
+    /** Human-readable end-of-run summary, one metric per line. */
+    String summary() {
+        return "report lines: " + getReportLines() + " (" + getReportLinesPerSecond() + "/s)\n"
+                + "bytes read: " + getBytesRead() + "\n"
+                + "parse: " + millis(getParseWallNanos()) + " ms, " + getParseAllocatedBytes() + " bytes allocated\n"
+                + "compute: " + millis(getComputeWallNanos()) + " ms, " + getComputeAllocatedBytes() + " bytes allocated\n"
+                + "output: " + millis(getOutputWallNanos()) + " ms\n"
+                + "stations: " + getStationsComputed() + ", intervals " + getStationIntervals()
+                + " (max " + getMaxStationIntervals() + " per station)\n"
+                + "sort/merge: " + millis(getStationMergeNanos()) + " ms total, "
+                + millis(getMaxStationMergeNanos()) + " ms max per station\n";
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+
+    @Override
+    public long getReportLines() {
+        return reportLines.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getReportLinesPerSecond() {
+        long nanos = getParseWallNanos();
+        return nanos == 0 ? 0 : (long) (getReportLines() * 1e9 / nanos);
+    }
+
+    @Override
+    public long getParseWallNanos() {
+        return parseWallNanos.sum();
+    }
+
+    @Override
+    public long getParseAllocatedBytes() {
+        return parseAllocatedBytes.sum();
+    }
+
+    @Override
+    public long getStationsComputed() {
+        return stationsComputed.sum();
+    }
+
+    @Override
+    public long getStationIntervals() {
+        return stationIntervals.sum();
+    }
+
+    @Override
+    public long getMaxStationIntervals() {
+        return maxStationIntervals.get();
+    }
+
+    @Override
+    public long getStationMergeNanos() {
+        return stationMergeNanos.sum();
+    }
+
+    @Override
+    public long getMaxStationMergeNanos() {
+        return maxStationMergeNanos.get();
+    }
+
+    @Override
+    public long getComputeWallNanos() {
+        return computeWallNanos.sum();
+    }
+
+    @Override
+    public long getComputeAllocatedBytes() {
+        return computeAllocatedBytes.sum();
+    }
+
+    @Override
+    public long getOutputWallNanos() {
+        return outputWallNanos.sum();
+    }
+
+    @Override
+    public boolean isDetailed() {
+        return detailed;
+    }
+
+    @Override
+    public void setDetailed(boolean detailed) {
+        this.detailed = detailed;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{reportLines, bytesRead, parseWallNanos, parseAllocatedBytes,
+                stationsComputed, stationIntervals, stationMergeNanos, computeWallNanos, computeAllocatedBytes,
+                outputWallNanos}) {
+            adder.reset();
+        }
+        maxStationIntervals.reset();
+        maxStationMergeNanos.reset();
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * JMX view of {@link UptimeMetrics} (registered as "StationUptime:type=Metrics").
+ * Times are in nanoseconds; per-station figures are only collected in detailed mode.
+ */
+public interface UptimeMetricsMXBean {
+
+    long getReportLines();
+
+    long getBytesRead();
+
+    long getReportLinesPerSecond();
+
+    long getParseWallNanos();
+
+    long getParseAllocatedBytes();
+
+    long getStationsComputed();
+
+    long getStationIntervals();
+
+    long getMaxStationIntervals();
+
+    long getStationMergeNanos();
+
+    long getMaxStationMergeNanos();
+
+    long getComputeWallNanos();
+
+    long getComputeAllocatedBytes();
+
+    long getOutputWallNanos();
+
+    boolean isDetailed();
+
+    void setDetailed(boolean detailed);
+
+    void reset();
+}
@@ -0,0 +1,178 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Time-bucketed uptime series per station (e.g. hourly or daily).
+ *
+ * Buckets are [origin + k * width, origin + (k + 1) * width) for any integer k,
+ * in unsigned 64-bit time, so they also extend below the origin. For every
+ * station, each merged up-interval is walked once and its covered time is
+ * split over the buckets it touches, into a primitive array of per-bucket
+ * totals. The reporting time of a bucket is the part of it inside the
+ * station's reporting span, the same rule UptimeIndex uses for a window, so a
+ * bucket's uptime equals a window query over that bucket. Stations are
+ * computed in parallel.
+ */
+public final class UptimeRollup {
+
+    /** Upper bound on buckets per station, so a tiny width cannot exhaust the heap. */
+    static final int MAX_BUCKETS_PER_STATION = 1 << 24;
+
+    private final long[] stationIds;
+    private final Series[] series;
+
+    private UptimeRollup(long[] stationIds, Series[] series) {
+        this.stationIds = stationIds;
+        this.series = series;
+    }
+
+    /** Bucketed uptime of one station; bucket i starts i * width after bucket 0. */
+    public static final class Series {
+        /** Start of bucket 0, wrapped modulo 2^64 if it lies below time 0. */
+        private final long alignedStart;
+        private final boolean firstClipped;
+        public final long width;
+        /** Per bucket (unsigned): covered up-time and reporting time. */
+        public final long[] covered;
+        public final long[] reporting;
+
+        private Series(long alignedStart, boolean firstClipped, long width, long[] covered, long[] reporting) {
+            this.alignedStart = alignedStart;
+            this.firstClipped = firstClipped;
+            this.width = width;
+            this.covered = covered;
+            this.reporting = reporting;
+        }
+
+        public int buckets() {
+            return covered.length;
+        }
+
+        /** Start of bucket i (unsigned); bucket 0 is clipped to 0 if it starts below time 0. */
+        public long bucketStart(int i) {
+            if (i == 0) return firstClipped ? 0 : alignedStart;
+            return alignedStart + i * width;
+        }
+
+        public int uptime(int i) {
+            return (int) Math.min(100, StationUptime.percent(covered[i], reporting[i]));
+        }
+    }
+
+    /**
+     * Computes every station's series for buckets of the given width (unsigned, non-zero)
+     * aligned to origin, on `parallelism` threads. Stations without reports get an empty series.
+     */
+    public static UptimeRollup build(InputParsingValidation parser, long width, long origin, int parallelism) {
+        if (width == 0) throw new IllegalArgumentException("Bucket width must be positive.");
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        long[] stationIds = parser.stationToChargers.stationIds();
+
+        Series[] series = new Series[stationIds.length];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, stationIds.length).parallel().forEach(i -> {
+                List<IntervalColumns> reports = StationUptime.stationReports(parser,
+                        parser.stationToChargers.stationOrdinal(stationIds[i]));
+                series[i] = stationSeries(reports, width, origin);
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing rollups", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            pool.shutdown();
+        }
+        return new UptimeRollup(stationIds, series);
+    }
+
+    /** The station's series, or null for an unknown station. */
+    public Series series(long stationId) {
+        int i = Arrays.binarySearch(stationIds, stationId);
+        return i < 0 ? null : series[i];
+    }
+
+    /** Prints every bucket through UptimeWriter in the given format, stations in ascending ID order. */
+    public void print(UptimeWriter.Format format) {
+        try (UptimeWriter out = UptimeWriter.forBuckets(System.out, format)) {
+            for (int s = 0; s < stationIds.length; s++) {
+                Series station = series[s];
+                for (int i = 0; i < station.buckets(); i++) {
+                    out.writeBucket(stationIds[s], station.bucketStart(i), station.uptime(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Works in offsets from the station's first start, so every in-span time is an
+     * unsigned offset in [0, span). The first bucket begins `lead` before that start
+     * (lead < width), hence bucket k covers offsets [k * width - lead, (k + 1) * width - lead).
+     */
+    static Series stationSeries(List<IntervalColumns> reports, long width, long origin) {
+        if (reports.isEmpty()) return new Series(0, false, width, new long[0], new long[0]);
+        long minStart = StationUptime.minStart(reports);
+        long span = StationUptime.maxEnd(reports) - minStart;
+        long lead = lead(minStart, width, origin);
+
+        long lastBucket = bucketOf(span - 1, width, lead);
+        if (Long.compareUnsigned(lastBucket, MAX_BUCKETS_PER_STATION) >= 0) {
+            throw new IllegalArgumentException("Bucket width " + Long.toUnsignedString(width)
+                    + " gives more than " + MAX_BUCKETS_PER_STATION + " buckets for one station.");
+        }
+        int buckets = (int) lastBucket + 1;
+        long[] covered = new long[buckets];
+        long[] reporting = new long[buckets];
+        for (int k = 0; k < buckets; k++) {
+            reporting[k] = bucketEnd(k, buckets, width, lead, span) - bucketStartOffset(k, width, lead);
+        }
+
+        MergedIntervals up = MergedIntervals.ofUp(reports);
+        for (int i = 0; i < up.size; i++) {
+            long from = up.starts[i] - minStart;
+            long to = up.ends[i] - minStart;
+            int first = (int) bucketOf(from, width, lead);
+            int last = (int) bucketOf(to - 1, width, lead);
+            if (first == last) {
+                covered[first] += to - from;
+                continue;
+            }
+            covered[first] += bucketEnd(first, buckets, width, lead, span) - from;
+            for (int k = first + 1; k < last; k++) covered[k] += width;
+            covered[last] += to - bucketStartOffset(last, width, lead);
+        }
+
+        // Bucket 0 starts at minStart - lead, which is below time 0 if lead > minStart.
+        return new Series(minStart - lead, Long.compareUnsigned(lead, minStart) > 0, width, covered, reporting);
+    }
+
+    /** Distance from the start of the bucket containing t back to t, i.e. (t - origin) mod width, non-negative. */
+    static long lead(long t, long width, long origin) {
+        if (Long.compareUnsigned(t, origin) >= 0) return Long.remainderUnsigned(t - origin, width);
+        long m = Long.remainderUnsigned(origin - t, width);
+        return m == 0 ? 0 : width - m;
+    }
+
+    /** Bucket index of offset off: floor((off + lead) / width), without overflowing off + lead. */
+    private static long bucketOf(long off, long width, long lead) {
+        long q = Long.divideUnsigned(off, width);
+        long r = Long.remainderUnsigned(off, width);
+        return lead != 0 && Long.compareUnsigned(r, width - lead) >= 0 ? q + 1 : q;
+    }
+
+    /** Offset where bucket k starts, clipped to 0 for the first bucket. */
+    private static long bucketStartOffset(int k, long width, long lead) {
+        return k == 0 ? 0 : k * width - lead;
+    }
+
+    /** Offset where bucket k ends, clipped to the span for the last bucket. */
+    private static long bucketEnd(int k, int buckets, long width, long lead, long span) {
+        return k == buckets - 1 ? span : (k + 1) * width - lead;
+    }
+}
@@ -0,0 +1,215 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Resident uptime service: keeps the parsed state in an IncrementalUptime engine
+ * and serves it over HTTP on the loopback interface.
+ *
+ *   GET  /uptime              every station as "ID PCT" lines, like the CLI output
+ *   GET  /uptime?station=ID   one station's line (404 if the station is unknown)
+ *   POST /reports             report lines in the input file's format; all or nothing
+ *
+ * Posted batches are validated outside any lock (same rules and messages as the
+ * parser), then applied by one writer at a time. After each batch the writer
+ * publishes a new immutable array of every station's uptime with one volatile
+ * write, so a query sees either none or all of a batch and never waits for
+ * ingestion.
+ */
+final class UptimeServer {
+
+    private static final Logger logger = Logger.getLogger(UptimeServer.class.getName());
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
+
+    private final InputParsingValidation parser;
+    private final IncrementalUptime engine;
+    private final ReentrantLock ingestLock = new ReentrantLock();
+    private final long[] sortedStations;
+    // published[i] is the uptime of sortedStations[i]; replaced, never modified, after a batch.
+    private volatile int[] published;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    UptimeServer(InputParsingValidation parser) {
+        this.parser = parser;
+        this.engine = IncrementalUptime.from(parser);
+        sortedStations = parser.stationToChargers.stationIds();
+        int[] initial = new int[sortedStations.length];
+        for (int i = 0; i < initial.length; i++) initial[i] = engine.uptime(sortedStations[i]);
+        published = initial;
+    }
+
+    /** Starts serving on 127.0.0.1:port (0 picks a free port) with the given number of handler threads. */
+    void start(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/uptime", this::handleUptime);
+        server.createContext("/reports", this::handleReports);
+        server.start();
+        logger.info("Serving " + sortedStations.length + " stations on port " + port() + " with " + threads + " threads.");
+    }
+
+    /** The bound port; only valid after start. */
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /** Stops accepting requests and waits briefly for running ones. */
+    void stop() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Server stopped.");
+    }
+
+    /** Published uptime of a station, or null if it is unknown. */
+    Integer uptime(long stationId) {
+        return uptime(published, stationId);
+    }
+
+    private Integer uptime(int[] snapshot, long stationId) {
+        int i = Arrays.binarySearch(sortedStations, stationId);
+        return i < 0 ? null : snapshot[i];
+    }
+
+    /**
+     * Validates report lines (input file format) and applies them atomically.
+     * Returns the number of reports added; throws on the first invalid line without applying any.
+     */
+    int ingest(byte[] body) throws InputFormatException, IOException {
+        ReportBatch batch = new ReportBatch();
+        parser.availabilityReports(new ByteLineReader(ByteBuffer.wrap(body), BATCH_BUFFER_SIZE), batch);
+
+        BitSet touched = new BitSet(sortedStations.length);
+        ingestLock.lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                long cid = batch.chargerIds[i];
+                engine.addReport(cid, batch.intervals.start(i), batch.intervals.end(i), batch.intervals.isUp(i));
+                touched.set(Arrays.binarySearch(sortedStations, engine.stationOf(cid)));
+            }
+            int[] next = published.clone();
+            for (int s = touched.nextSetBit(0); s >= 0; s = touched.nextSetBit(s + 1)) {
+                next[s] = engine.uptime(sortedStations[s]);
+            }
+            published = next;
+        } finally {
+            ingestLock.unlock();
+        }
+        return batch.size();
+    }
+
+    private void handleUptime(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "ERROR: use GET\n");
+                return;
+            }
+            int[] snapshot = published;
+            String station = queryParameter(exchange.getRequestURI(), "station");
+            if (station == null) {
+                StringBuilder body = new StringBuilder();
+                for (int i = 0; i < sortedStations.length; i++) {
+                    body.append(sortedStations[i]).append(' ').append(snapshot[i]).append('\n');
+                }
+                respond(exchange, 200, body.toString());
+                return;
+            }
+            long stationId = parseStationId(station);
+            if (stationId < 0) {
+                respond(exchange, 400, "ERROR: invalid station ID\n");
+                return;
+            }
+            Integer pct = uptime(snapshot, stationId);
+            if (pct == null) respond(exchange, 404, "ERROR: unknown station: " + stationId + "\n");
+            else respond(exchange, 200, stationId + " " + pct + "\n");
+        }
+    }
+
+    private void handleReports(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "ERROR: use POST\n");
+                return;
+            }
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            try {
+                int added = ingest(body);
+                respond(exchange, 200, "OK " + added + "\n");
+            } catch (InputFormatException e) {
+                logger.warning("Rejected report batch: " + e.getMessage());
+                respond(exchange, 400, "ERROR: " + e.getMessage() + "\n");
+            }
+        }
+    }
+
+    /** The unsigned 32-bit station ID in value, or -1 if it is not one. */
+    private static long parseStationId(String value) {
+        try {
+            long id = Long.parseLong(value);
+            return id <= 0xFFFFFFFFL ? id : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) return pair.substring(eq + 1);
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** Validated reports of one request, in arrival order. */
+    private static final class ReportBatch implements ReportSink {
+        private long[] chargerIds = new long[16];
+        private final IntervalColumns intervals = new IntervalColumns();
+
+        @Override
+        public void add(long chargerId, long start, long end, boolean up) {
+            int i = intervals.size();
+            if (i == chargerIds.length) chargerIds = Arrays.copyOf(chargerIds, i + (i >> 1));
+            chargerIds[i] = chargerId;
+            intervals.add(start, end, up);
+        }
+
+        int size() {
+            return intervals.size();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Buffered sink for per-station results. Records are encoded straight into a
+ * large byte buffer and handed to the underlying stream in big blocks, instead
+ * of one synchronized println per station.
+ *
+ * Formats:
+ *   TEXT    "<StationID> <Uptime%>" + line separator, byte-identical to println
+ *   CSV     header "station_id,uptime_percent", then one row per station
+ *   JSONL   {"station_id":ID,"uptime_percent":PCT} per line
+ *   BINARY  magic "SUOUT001", then per station a big-endian unsigned 32-bit ID and one uptime byte
+ *
+ * A writer made by forBuckets takes rollup records (writeBucket) instead, with
+ * the bucket start (unsigned 64-bit) after the station ID: "<StationID>
+ * <BucketStart> <Uptime%>", CSV header "station_id,bucket_start,uptime_percent",
+ * JSONL key "bucket_start", and BINARY magic "SUBKT001" with an 8-byte start.
+ *
+ * The underlying stream is flushed, never closed, by close().
+ */
+final class UptimeWriter implements AutoCloseable {
+
+    enum Format {
+        TEXT, CSV, JSONL, BINARY;
+
+        /** Case-insensitive name, e.g. "jsonl". */
+        static Format parse(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown output format: " + name
+                        + " (expected text, csv, jsonl or binary)");
+            }
+        }
+    }
+
+    static final byte[] BINARY_MAGIC = "SUOUT001".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] BINARY_BUCKET_MAGIC = "SUBKT001".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_RECORD_BYTES = 96;
+    private static final byte[] CSV_HEADER = "station_id,uptime_percent\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CSV_BUCKET_HEADER =
+            "station_id,bucket_start,uptime_percent\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_ID = "{\"station_id\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_BUCKET_START = ",\"bucket_start\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] JSON_UPTIME = ",\"uptime_percent\":".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final Format format;
+    private final boolean buckets;
+    private final byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+
+    UptimeWriter(OutputStream out, Format format) {
+        this(out, format, false);
+    }
+
+    private UptimeWriter(OutputStream out, Format format, boolean buckets) {
+        this.out = out;
+        this.format = format;
+        this.buckets = buckets;
+        if (format == Format.CSV) put(buckets ? CSV_BUCKET_HEADER : CSV_HEADER);
+        else if (format == Format.BINARY) put(buckets ? BINARY_BUCKET_MAGIC : BINARY_MAGIC);
+    }
+
+    /** Writes to System.out as it is at the time of the call. */
+    static UptimeWriter toStdout(Format format) {
+        return new UptimeWriter(System.out, format);
+    }
+
+    /** A writer for rollup records, see writeBucket. */
+    static UptimeWriter forBuckets(OutputStream out, Format format) {
+        return new UptimeWriter(out, format, true);
+    }
+
+    /** Appends one station's result; stationId is an unsigned 32-bit ID, uptime 0..100. */
+    void write(long stationId, int uptime) {
+        if (buckets) throw new IllegalStateException("Writer is for rollup buckets");
+        if (pos + MAX_RECORD_BYTES > buf.length) flushBuffer();
+        switch (format) {
+            case TEXT -> {
+                putDecimal(stationId);
+                buf[pos++] = ' ';
+                putDecimal(uptime);
+                put(lineSeparator);
+            }
+            case CSV -> {
+                putDecimal(stationId);
+                buf[pos++] = ',';
+                putDecimal(uptime);
+                buf[pos++] = '\n';
+            }
+            case JSONL -> {
+                put(JSON_ID);
+                putDecimal(stationId);
+                put(JSON_UPTIME);
+                putDecimal(uptime);
+                buf[pos++] = '}';
+                buf[pos++] = '\n';
+            }
+            case BINARY -> {
+                buf[pos++] = (byte) (stationId >>> 24);
+                buf[pos++] = (byte) (stationId >>> 16);
+                buf[pos++] = (byte) (stationId >>> 8);
+                buf[pos++] = (byte) stationId;
+                buf[pos++] = (byte) uptime;
+            }
+        }
+    }
+
+    /** Appends one rollup bucket of a station; bucketStart is unsigned 64-bit, uptime 0..100. */
+    void writeBucket(long stationId, long bucketStart, int uptime) {
+        if (!buckets) throw new IllegalStateException("Writer is for per-station results");
+        if (pos + MAX_RECORD_BYTES > buf.length) flushBuffer();
+        switch (format) {
+            case TEXT -> {
+                putDecimal(stationId);
+                buf[pos++] = ' ';
+                putUnsignedDecimal(bucketStart);
+                buf[pos++] = ' ';
+                putDecimal(uptime);
+                put(lineSeparator);
+            }
+            case CSV -> {
+                putDecimal(stationId);
+                buf[pos++] = ',';
+                putUnsignedDecimal(bucketStart);
+                buf[pos++] = ',';
+                putDecimal(uptime);
+                buf[pos++] = '\n';
+            }
+            case JSONL -> {
+                put(JSON_ID);
+                putDecimal(stationId);
+                put(JSON_BUCKET_START);
+                putUnsignedDecimal(bucketStart);
+                put(JSON_UPTIME);
+                putDecimal(uptime);
+                buf[pos++] = '}';
+                buf[pos++] = '\n';
+            }
+            case BINARY -> {
+                buf[pos++] = (byte) (stationId >>> 24);
+                buf[pos++] = (byte) (stationId >>> 16);
+                buf[pos++] = (byte) (stationId >>> 8);
+                buf[pos++] = (byte) stationId;
+                for (int shift = 56; shift >= 0; shift -= 8) buf[pos++] = (byte) (bucketStart >>> shift);
+                buf[pos++] = (byte) uptime;
+            }
+        }
+    }
+
+    /** Writes out everything buffered and flushes the stream. */
+    @Override
+    public void close() {
+        flushBuffer();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushBuffer() {
+        if (pos == 0) return;
+        try {
+            out.write(buf, 0, pos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pos = 0;
+    }
+
+    private void put(byte[] bytes) {
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    /** ASCII decimal digits of an unsigned 64-bit value. */
+    private void putUnsignedDecimal(long v) {
+        if (v >= 0) {
+            putDecimal(v);
+            return;
+        }
+        putDecimal(Long.divideUnsigned(v, 10));
+        buf[pos++] = (byte) ('0' + Long.remainderUnsigned(v, 10));
+    }
+
+    /** ASCII decimal digits of a non-negative value. */
+    private void putDecimal(long v) {
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) digits++;
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + (int) (v % 10));
+            v /= 10;
+        }
+        pos = end;
+    }
+}
@@ -0,0 +1,134 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncLogHandlerTest {
+
+    /** Collects formatted messages together with the thread that formatted them. */
+    private static class Recording extends Handler {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean closed;
+
+        Recording() {
+            setFormatter(new SimpleFormatter());
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            messages.add(getFormatter().formatMessage(record));
+            threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void testRecordsAreFormattedOnWriterInOrder() {
+        Recording target = new Recording();
+        AsyncLogHandler async = new AsyncLogHandler(target, 4); // small buffer: producers have to wait
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(async);
+
+        for (int i = 0; i < 100; i++) logger.log(Level.WARNING, "Report {0,number,#} rejected", 1000L + i);
+        async.flush();
+
+        assertEquals(100, target.messages.size());
+        for (int i = 0; i < 100; i++) assertEquals("Report " + (1000 + i) + " rejected", target.messages.get(i));
+        assertTrue(target.threads.stream().allMatch("async-log-writer"::equals), target.threads.toString());
+
+        async.close();
+        assertTrue(target.closed);
+        logger.warning("after close"); // ignored
+        assertEquals(100, target.messages.size());
+    }
+
+    @Test
+    public void testSevereIsWrittenBeforePublishReturns() {
+        Recording target = new Recording();
+        AsyncLogHandler async = new AsyncLogHandler(target);
+        try {
+            LogRecord record = new LogRecord(Level.SEVERE, "Fatal Error: {0}");
+            record.setParameters(new Object[]{"boom"});
+            async.publish(record);
+            assertEquals(List.of("Fatal Error: boom"), target.messages);
+        } finally {
+            async.close();
+        }
+    }
+
+    @Test
+    public void testCallerIsInferredOnLoggingThread() {
+        List<String> sources = new ArrayList<>();
+        Handler target = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                sources.add(record.getSourceClassName() + "." + record.getSourceMethodName());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AsyncLogHandler async = new AsyncLogHandler(target);
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(async);
+        logger.info("hello");
+        async.close();
+        assertEquals(List.of("AsyncLogHandlerTest.testCallerIsInferredOnLoggingThread"), sources);
+    }
+
+    @Test
+    public void testInterruptedPublishWritesRecordAndKeepsInterrupt() throws Exception {
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Recording target = new Recording() {
+            @Override
+            public void publish(LogRecord record) {
+                if (Thread.currentThread().getName().equals("async-log-writer")) {
+                    writerBusy.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.publish(record);
+            }
+        };
+        AsyncLogHandler handler = new AsyncLogHandler(target, 1);
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+
+        logger.info("first");  // taken by the writer, which then blocks
+        assertTrue(writerBusy.await(10, TimeUnit.SECONDS));
+        logger.info("second"); // fills the buffer
+        Thread.currentThread().interrupt();
+        logger.info("third");  // cannot wait for space, so it is written right away
+        assertTrue(Thread.interrupted());
+        assertEquals(List.of("third"), target.messages);
+
+        release.countDown();
+        handler.close();
+        assertEquals(List.of("third", "first", "second"), target.messages);
+    }
+}
@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChargerAnalyticsTest {
+
+    @Test
+    public void testOutagesAndUnreportedGaps() {
+        StationTable stations = new StationTable();
+        stations.put(0L, 1L, 2L, 3L);
+        IntervalStore store = new IntervalStore(stations);
+        store.add(1L, 0, 10, true);
+        store.add(1L, 20, 30, false);
+        store.add(1L, 40, 50, true);
+        store.add(2L, 100, 110, true); // unsorted run
+        store.add(2L, 60, 70, true);
+
+        ChargerAnalytics a = ChargerAnalytics.sweep(stations, 0, store);
+
+        assertArrayEquals(new long[]{1, 2, 3}, a.chargerIds);
+        assertArrayEquals(new int[]{3, 2, 0}, a.reports);
+        assertArrayEquals(new int[]{40, 40, 0}, a.uptime);
+        assertArrayEquals(new long[]{30, 30, 0}, a.largestOutage);
+        assertArrayEquals(new int[]{2, 1, 0}, a.unreportedGaps);
+        assertEquals(110, a.span());
+        assertEquals(40, a.available());
+    }
+
+    @Test
+    public void testSweepMatchesStationAndSingleChargerUptime() throws Exception {
+        Random random = new Random(21);
+        InputParsingValidation parser = new InputParsingValidation();
+        for (long s = 0; s < 20; s++) parser.addStation(s, new long[]{3 * s, 3 * s + 1, 3 * s + 2});
+        for (int i = 0; i < 3000; i++) {
+            long start = random.nextInt(100_000);
+            parser.chargerReports.add(random.nextInt(57), start, start + 1 + random.nextInt(3000), random.nextBoolean());
+        }
+        StationUptime uptime = new StationUptime(parser);
+
+        for (long s = 0; s < 20; s++) {
+            long[] chargers = parser.stationToChargers.chargers(s);
+            ChargerAnalytics a = ChargerAnalytics.sweep(parser.stationToChargers,
+                    parser.stationToChargers.stationOrdinal(s), parser.chargerReports);
+            assertEquals(uptime.computeUptime(s),
+                    a.hasReports() ? StationUptime.uptimePercent(s, a.span(), a.available()) : 0, "station " + s);
+
+            for (int c = 0; c < chargers.length; c++) {
+                InputParsingValidation single = new InputParsingValidation();
+                single.stationToChargers.put(0L, chargers[c]);
+                IntervalColumns columns = parser.chargerReports.get(chargers[c]);
+                if (columns != null) single.chargerReports.set(0, columns);
+                assertEquals(new StationUptime(single).computeUptime(0L), a.uptime[c], "charger " + chargers[c]);
+            }
+        }
+    }
+
+    @Test
+    public void testAnalyticsCsvFromMain(@TempDir Path dir) throws Exception {
+        Path input = dir.resolve("input.txt");
+        Files.writeString(input, "[Stations]\n0 1001 1002\n1 1003\n[Charger Availability Reports]\n"
+                + "1001 0 10 true\n1001 40 50 true\n1002 0 50 false\n");
+        Path csv = dir.resolve("analytics.csv");
+
+        Main.run(new String[]{"--analytics=" + csv, "--compute-threads=2", input.toString()});
+
+        assertEquals(List.of("station_id,charger_id,reports,uptime_percent,largest_outage,unreported_gaps",
+                "0,1001,2,40,30,1",
+                "0,1002,1,0,50,0",
+                "1,1003,0,0,0,0"), Files.readAllLines(csv));
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentIntervalStoreTest {
+
+    private static InputParsingValidation stations(int chargers) throws InputFormatException {
+        InputParsingValidation parser = new InputParsingValidation();
+        for (int s = 0; s < chargers / 2; s++) parser.addStation(s, new long[]{2L * s, 2L * s + 1});
+        return parser;
+    }
+
+    @Test
+    public void testConcurrentProducersMatchSequentialStore() throws Exception {
+        InputParsingValidation parser = stations(100);
+        ConcurrentIntervalStore store = new ConcurrentIntervalStore(parser, 8);
+        int producers = 8;
+        int perProducer = 5000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> feeds = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final int producer = p;
+                feeds.add(pool.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        long t = (long) producer * perProducer + i;
+                        store.addReport(t % 100, t * 10, t * 10 + 5, t % 3 != 0);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> feed : feeds) feed.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdown();
+        }
+
+        IntervalStore drained = new IntervalStore(parser.stationToChargers);
+        store.drainInto(drained);
+        assertEquals(0, store.size(7));
+
+        for (long cid = 0; cid < 100; cid++) {
+            IntervalColumns columns = drained.get(cid);
+            assertEquals(producers * perProducer / 100, columns.size());
+            Set<Long> starts = new HashSet<>();
+            for (int i = 0; i < columns.size(); i++) {
+                long t = columns.start(i) / 10;
+                assertEquals(cid, t % 100);
+                assertEquals(columns.start(i) + 5, columns.end(i));
+                assertEquals(t % 3 != 0, columns.isUp(i));
+                starts.add(columns.start(i));
+            }
+            assertEquals(columns.size(), starts.size());
+        }
+    }
+
+    @Test
+    public void testValidationMatchesParser() throws Exception {
+        ConcurrentIntervalStore store = new ConcurrentIntervalStore(stations(4));
+
+        InputFormatException unknown = assertThrows(InputFormatException.class, () -> store.addReport(99, 0, 1, true));
+        assertEquals("Report Charger ID not found in station definitions: 99", unknown.getMessage());
+        InputFormatException order = assertThrows(InputFormatException.class, () -> store.addReport(1, 5, 5, true));
+        assertEquals("Start time must be less than end time.", order.getMessage());
+        store.addReport(1, 0, -1L, true); // unsigned: end is 2^64 - 1
+        assertEquals(1, store.size(1));
+        assertEquals(0, store.size(99));
+        assertThrows(IllegalArgumentException.class, () -> store.add(99, 0, 1, true));
+    }
+}
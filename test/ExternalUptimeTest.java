@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalUptimeTest {
+
+    private static Path writeInput(Path dir, int stations, int reports, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder input = new StringBuilder("[Stations]\n");
+        for (int s = stations - 1; s >= 0; s--) {
+            input.append(s * 3).append(' ').append(100 + 2 * s).append(' ').append(101 + 2 * s).append('\n');
+        }
+        input.append("[Charger Availability Reports]\n");
+        for (int i = 0; i < reports; i++) {
+            long start = random.nextBoolean() ? random.nextInt(10_000) : -2_000_000L + random.nextInt(10_000);
+            input.append(100 + random.nextInt(2 * stations - 2)).append(' ')
+                    .append(Long.toUnsignedString(start)).append(' ')
+                    .append(Long.toUnsignedString(start + 1 + random.nextInt(500)))
+                    .append(random.nextInt(3) == 0 ? " false\n" : " true\n");
+        }
+        Path file = dir.resolve("input.txt");
+        Files.writeString(file, input.toString());
+        return file;
+    }
+
+    private static String capture(ThrowingRunnable action) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            action.run();
+        } finally {
+            System.setOut(original);
+        }
+        return out.toString();
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    @Test
+    public void testMultiPassMergeMatchesInMemory(@TempDir Path dir) throws Exception {
+        Path file = writeInput(dir, 50, 5000, 13);
+
+        String expected = capture(() -> {
+            InputParsingValidation parser = new InputParsingValidation();
+            parser.parse(file.toString());
+            new StationUptime(parser).computeAndPrint();
+        });
+
+        Path runDir = Files.createDirectory(dir.resolve("runs"));
+        InputParsingValidation parser = new InputParsingValidation();
+        ExternalUptime external = new ExternalUptime(parser, 64 * 100, runDir); // ~100 records per run, fan-in 2
+        String actual = capture(() -> {
+            parser.parse(file.toString(), external);
+            external.computeAndPrint(UptimeWriter.Format.TEXT);
+        });
+
+        assertTrue(external.runsWritten() > 50, "runs: " + external.runsWritten());
+        assertEquals(50, expected.trim().split("\\R").length);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testInvalidReportFails(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("bad.txt");
+        Files.writeString(file, "[Stations]\n0 1\n[Charger Availability Reports]\n1 0 10 true\n2 0 10 true\n");
+
+        assertThrows(InputFormatException.class, () -> ExternalUptime.computeAndPrint(file.toString(), 1 << 20, UptimeWriter.Format.TEXT));
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalUptimeTest {
+
+    @Test
+    public void testMatchesFullRecomputationAfterEveryReport() throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(0L, 1001L, 1002L);
+        parser.stationToChargers.put(1L, 1003L);
+
+        IncrementalUptime engine = new IncrementalUptime(parser.stationToChargers);
+        StationUptime full = new StationUptime(parser);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            long cid = 1001 + random.nextInt(3);
+            long start = random.nextInt(10_000);
+            long end = start + 1 + random.nextInt(300);
+            boolean up = random.nextInt(4) != 0;
+
+            engine.addReport(cid, start, end, up);
+            parser.chargerReports.add(cid, start, end, up);
+
+            if (i % 50 == 0) {
+                assertEquals(full.computeUptime(0L), engine.uptime(0L));
+                assertEquals(full.computeUptime(1L), engine.uptime(1L));
+            }
+        }
+        assertEquals(full.computeUptime(0L), engine.uptime(0L));
+        assertEquals(full.computeUptime(1L), engine.uptime(1L));
+    }
+
+    @Test
+    public void testSeededFromParser() throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(2L, 1004L);
+        parser.chargerReports.add(1004L, 0, 50000, true);
+
+        IncrementalUptime engine = IncrementalUptime.from(parser);
+        assertEquals(100, engine.uptime(2L));
+
+        engine.addReport(1004L, 100000, 200000, true);
+        assertEquals(75, engine.uptime(2L));
+
+        engine.addReport(1004L, 40000, 120000, true); // bridges the gap
+        assertEquals(100, engine.uptime(2L));
+    }
+
+    @Test
+    public void testValidation() {
+        StationTable stations = new StationTable();
+        stations.put(0L, 1001L);
+        IncrementalUptime engine = new IncrementalUptime(stations);
+
+        assertThrows(InputFormatException.class, () -> engine.addReport(2000L, 0, 10, true));
+        assertThrows(InputFormatException.class, () -> engine.addReport(1001L, 10, 10, true));
+        assertEquals(0, engine.uptime(0L));
+        assertEquals(0, engine.uptime(99L));
+    }
+}
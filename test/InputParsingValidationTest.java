@@ -4,7 +4,6 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.math.BigInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,11 +29,10 @@ public class InputParsingValidationTest {
         parser.parse(createTempInput(input, dir).toString());
 
         assertEquals(2, parser.stationToChargers.size());
-        assertTrue(parser.stationToChargers.get(0L).contains(1001L));
-        assertTrue(parser.stationToChargers.get(0L).contains(1002L));
+        assertArrayEquals(new long[]{1001L, 1002L}, parser.stationToChargers.chargers(0L));
 
-        assertEquals(1, parser.chargerUp.get(1001L).size());
-        assertEquals(1, parser.chargerAll.get(1001L).size());
+        assertEquals(1, parser.chargerReports.get(1001L).upCount());
+        assertEquals(1, parser.chargerReports.get(1001L).size());
     }
 
     @Test
@@ -112,4 +110,140 @@ public class InputParsingValidationTest {
         assertThrows(InputFormatException.class,
                 () -> parser.parse(createTempInput(input, dir).toString()));
     }
+
+    @Test
+    public void testTimeAbove64BitRange(@TempDir Path dir) throws IOException {
+        String input =
+                "[Stations]\n" +
+                        "0 1001\n" +
+                        "[Charger Availability Reports]\n" +
+                        "1001 0 18446744073709551616 true\n"; // 2^64
+
+        InputParsingValidation parser = new InputParsingValidation();
+        assertThrows(InputFormatException.class,
+                () -> parser.parse(createTempInput(input, dir).toString()));
+    }
+
+    @Test
+    public void testCrlfLineEndingsAndMixedCaseBooleans(@TempDir Path dir) throws Exception {
+        String input =
+                "[Stations]\r\n" +
+                        "0 1001\r\n" +
+                        "\r\n" +
+                        "[Charger Availability Reports]\r\n" +
+                        "1001\t0 50 TRUE\r\n" +
+                        "+1001 50 100 False\r\n";
+
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.parse(createTempInput(input, dir).toString());
+
+        assertEquals(2, parser.chargerReports.get(1001L).size());
+        assertEquals(1, parser.chargerReports.get(1001L).upCount());
+    }
+
+    private String generatedInput(int reports) {
+        StringBuilder sb = new StringBuilder("[Stations]\n0 1001 1002\n1 1003\n[Charger Availability Reports]\n");
+        for (int i = 0; i < reports; i++) {
+            sb.append(1001 + i % 3).append(' ').append(i * 10L).append(' ').append(i * 10L + 15)
+                    .append(i % 4 == 0 ? " false" : " true").append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testParallelParsingMatchesSequential(@TempDir Path dir) throws Exception {
+        Path file = createTempInput(generatedInput(5000), dir);
+
+        InputParsingValidation sequential = new InputParsingValidation();
+        sequential.parse(file.toString());
+        InputParsingValidation parallel = new InputParsingValidation();
+        parallel.setReportParallelism(7);
+        parallel.parse(file.toString());
+
+        for (long cid = 1001; cid <= 1003; cid++) {
+            IntervalColumns expected = sequential.chargerReports.get(cid);
+            IntervalColumns actual = parallel.chargerReports.get(cid);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.upCount(), actual.upCount());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.start(i), actual.start(i));
+                assertEquals(expected.end(i), actual.end(i));
+                assertEquals(expected.isUp(i), actual.isUp(i));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelParsingReportsFirstOffendingLine(@TempDir Path dir) throws Exception {
+        String input = generatedInput(2000) + "7777 0 10 true\n" + generatedInput(2000).split("Reports]\n")[1]
+                + "8888 0 10 true\n";
+
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.setReportParallelism(8);
+        InputFormatException e = assertThrows(InputFormatException.class,
+                () -> parser.parse(createTempInput(input, dir).toString()));
+        assertTrue(e.getMessage().endsWith(": 7777"), e.getMessage());
+    }
+
+    @Test
+    public void testScanLoadsGroupedRunsWithBlankLines(@TempDir Path dir) throws Exception {
+        StringBuilder input = new StringBuilder("[Stations]\n0 1001\n1 1002\n[Charger Availability Reports]\n");
+        for (int block = 0; block < 3; block++) {
+            for (int i = 0; i < 50; i++) input.append("1001 ").append(block * 1000 + i).append(' ')
+                    .append(block * 1000 + i + 1).append(i % 7 == 0 ? " false\r\n\r\n" : " true\n");
+            input.append("\n1002 ").append(block).append(' ').append(block + 1).append(" true\n");
+        }
+        Path file = createTempInput(input.toString(), dir);
+
+        InputParsingValidation lazy = new InputParsingValidation();
+        ReportIndex index = lazy.scan(file.toString());
+        assertEquals(150, index.reportCount(1001L));
+        assertEquals(3, index.reportCount(1002L));
+        index.load(0L);
+        IntervalColumns columns = lazy.chargerReports.get(1001L);
+        assertEquals(150, columns.size());
+        for (int i = 0; i < 150; i++) {
+            assertEquals(i / 50 * 1000 + i % 50, columns.start(i));
+            assertEquals(i % 50 % 7 != 0, columns.isUp(i));
+        }
+        assertNull(lazy.chargerReports.get(1002L));
+    }
+
+    @Test
+    public void testScanThenLoadMatchesParse(@TempDir Path dir) throws Exception {
+        // a slow-path line, CRLF endings and a last line without newline
+        String input = generatedInput(30000).replace("1002 100 115 true\n", "1002\t100  115 TRUE\r\n")
+                + "1001 900000 900001 true";
+        Path file = createTempInput(input, dir);
+
+        InputParsingValidation full = new InputParsingValidation();
+        full.parse(file.toString());
+        InputParsingValidation lazy = new InputParsingValidation();
+        ReportIndex index = lazy.scan(file.toString());
+
+        assertEquals(10001, index.reportCount(1001L));
+        assertNull(lazy.chargerReports.get(1001L));
+        index.load(0L, 0L);
+        assertNull(lazy.chargerReports.get(1003L));
+        for (long cid = 1001; cid <= 1002; cid++) {
+            IntervalColumns expected = full.chargerReports.get(cid);
+            IntervalColumns actual = lazy.chargerReports.get(cid);
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.start(i), actual.start(i));
+                assertEquals(expected.end(i), actual.end(i));
+                assertEquals(expected.isUp(i), actual.isUp(i));
+            }
+        }
+    }
+
+    @Test
+    public void testScanFailsLikeParse(@TempDir Path dir) throws Exception {
+        String input = generatedInput(100) + "1001 20 10 true\n" + "7777 0 10 true\n";
+        Path file = createTempInput(input, dir);
+
+        InputFormatException e = assertThrows(InputFormatException.class,
+                () -> new InputParsingValidation().scan(file.toString()));
+        assertEquals("Start time must be less than end time.", e.getMessage());
+    }
 }
@@ -0,0 +1,86 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntervalSortTest {
+
+    /** Sorts with the given algorithm and checks unsigned order and that start/end pairs stay together. */
+    private void assertSorts(String algorithm, long[] starts) {
+        int n = starts.length;
+        long[] s = starts.clone();
+        long[] e = new long[n];
+        for (int i = 0; i < n; i++) e[i] = ~s[i]; // pair marker
+
+        switch (algorithm) {
+            case "auto" -> IntervalSort.sortByStart(s, e, n);
+            case "radix" -> IntervalSort.radixSort(s, e, n);
+            default -> IntervalSort.comparisonSort(s, e, n);
+        }
+
+        Long[] expected = Arrays.stream(starts).boxed().toArray(Long[]::new);
+        Arrays.sort(expected, Long::compareUnsigned);
+        for (int i = 0; i < n; i++) {
+            assertEquals((long) expected[i], s[i], algorithm + " at " + i);
+            assertEquals(~s[i], e[i], algorithm + " pair at " + i);
+        }
+    }
+
+    @Test
+    public void testAllAlgorithmsAgree() {
+        Random random = new Random(9);
+        for (int n : new int[]{0, 1, 2, 31, 255, 256, 5000}) {
+            long[] small = new long[n];
+            long[] large = new long[n];
+            for (int i = 0; i < n; i++) {
+                small[i] = random.nextInt(100);
+                large[i] = random.nextLong();
+            }
+            for (String algorithm : List.of("auto", "radix", "comparison")) {
+                assertSorts(algorithm, small);
+                assertSorts(algorithm, large);
+            }
+        }
+    }
+
+    @Test
+    public void testUnsignedOrderAroundSignBit() {
+        long[] starts = {-1L, Long.MIN_VALUE, Long.MAX_VALUE, 0L, 1L, Long.MIN_VALUE + 1};
+        for (String algorithm : List.of("radix", "comparison")) assertSorts(algorithm, starts);
+    }
+
+    @Test
+    public void testKWayMergeMatchesConcatenateAndSort() {
+        Random random = new Random(12);
+        List<IntervalColumns> sorted = new ArrayList<>();
+        List<IntervalColumns> shuffled = new ArrayList<>();
+        for (int c = 0; c < 7; c++) {
+            IntervalColumns run = new IntervalColumns();
+            long t = random.nextBoolean() ? 0 : Long.MAX_VALUE - 5000; // some runs cross the sign bit
+            for (int i = 0; i < 300; i++) {
+                t += random.nextInt(20);
+                run.add(t, t + 1 + random.nextInt(40), random.nextInt(4) != 0);
+            }
+            assertTrue(run.isSortedByStart());
+            sorted.add(run);
+
+            IntervalColumns reversed = new IntervalColumns();
+            for (int i = run.size() - 1; i >= 0; i--) reversed.add(run.start(i), run.end(i), run.isUp(i));
+            assertFalse(reversed.isSortedByStart());
+            assertEquals(run.minStart(), reversed.minStart());
+            assertEquals(run.maxEnd(), reversed.maxEnd());
+            shuffled.add(reversed);
+        }
+
+        MergedIntervals merged = MergedIntervals.ofUp(sorted);
+        MergedIntervals resorted = MergedIntervals.ofUp(shuffled);
+        assertEquals(resorted.size, merged.size);
+        for (int i = 0; i < merged.size; i++) {
+            assertEquals(resorted.starts[i], merged.starts[i]);
+            assertEquals(resorted.ends[i], merged.ends[i]);
+        }
+        assertEquals(resorted.totalLength(), MergedIntervals.unionLength(sorted));
+        assertEquals(resorted.totalLength(), MergedIntervals.unionLength(shuffled));
+    }
+}
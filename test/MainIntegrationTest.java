@@ -67,4 +67,104 @@ public class MainIntegrationTest {
 
         assertEquals("ERROR", out.toString().trim());
     }
+
+    static String runMain(String... args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(out));
+        try {
+            Main.main(args);
+        } finally {
+            System.setOut(original);
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void testParallelRunMatchesSequential(@TempDir Path dir) throws Exception {
+        StringBuilder input = new StringBuilder("[Stations]\n");
+        for (int s = 0; s < 200; s++) {
+            input.append(s).append(' ').append(1000 + 2 * s).append(' ').append(1001 + 2 * s).append('\n');
+        }
+        input.append("[Charger Availability Reports]\n");
+        for (int i = 0; i < 4000; i++) {
+            input.append(1000 + i % 400).append(' ').append(i * 7L).append(' ').append(i * 7L + 5 + i % 11)
+                    .append(i % 3 == 0 ? " false\n" : " true\n");
+        }
+        Path file = createTempInput(input.toString(), dir);
+
+        String sequential = runMain(file.toString());
+        String parallel = runMain("--parse-threads=4", "--compute-threads=4", file.toString());
+
+        assertEquals(200, sequential.trim().split("\\R").length);
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testExternalModeMatchesInMemory(@TempDir Path dir) throws Exception {
+        StringBuilder input = new StringBuilder("[Stations]\n");
+        for (int s = 0; s < 100; s++) input.append(s).append(' ').append(500 + s).append('\n');
+        input.append("[Charger Availability Reports]\n");
+        for (int i = 0; i < 2000; i++) {
+            input.append(500 + i % 100).append(' ').append(i * 3L).append(' ').append(i * 3L + 1 + i % 7)
+                    .append(i % 4 == 0 ? " false\n" : " true\n");
+        }
+        Path file = createTempInput(input.toString(), dir);
+
+        assertEquals(runMain(file.toString()), runMain("--external-memory-mb=1", file.toString()));
+        assertEquals("ERROR", runMain("--external-memory-mb=1", "--window=0:10", file.toString()).trim());
+    }
+
+    @Test
+    public void testCsvFormat(@TempDir Path dir) throws Exception {
+        Path file = createTempInput("[Stations]\n0 1\n1 2\n[Charger Availability Reports]\n1 0 10 true\n", dir);
+
+        assertEquals("station_id,uptime_percent\n0,100\n1,0\n", runMain("--format=csv", file.toString()));
+        assertEquals("ERROR", runMain("--format=xml", file.toString()).trim());
+    }
+
+    @Test
+    public void testUnknownOptionPrintsError(@TempDir Path dir) throws Exception {
+        Path file = createTempInput("[Stations]\n0 1\n[Charger Availability Reports]\n1 0 1 true\n", dir);
+
+        assertEquals("ERROR", runMain("--no-such-option", file.toString()).trim());
+    }
+
+    @Test
+    public void testSingleStations(@TempDir Path dir) throws Exception {
+        Path file = createTempInput("[Stations]\n0 1\n1 2\n2 3\n[Charger Availability Reports]\n"
+                + "1 0 10 true\n2 0 10 true\n2 10 20 false\n", dir);
+
+        assertEquals("1 50\n", runMain("--station=1", file.toString()).replace(System.lineSeparator(), "\n"));
+        assertEquals("0 100\n1 50\n", runMain("--station=1,0", file.toString()).replace(System.lineSeparator(), "\n"));
+        assertEquals("ERROR", runMain("--station=9", file.toString()).trim());
+        // 2^32 + 1 and -1 must not alias stations 1 and 4294967295
+        assertEquals("ERROR", runMain("--station=4294967297", file.toString()).trim());
+        assertEquals("ERROR", runMain("--station=-1", file.toString()).trim());
+
+        Path bad = createTempInput("[Stations]\n0 1\n[Charger Availability Reports]\n1 0 10 maybe\n", dir);
+        assertEquals("ERROR", runMain("--station=0", bad.toString()).trim());
+    }
+
+    @Test
+    public void testResultCache(@TempDir Path dir) throws Exception {
+        Path cacheDir = dir.resolve("cache");
+        String stations = "[Stations]\n0 1\n1 2\n[Charger Availability Reports]\n";
+        Path file = createTempInput(stations + "1 0 10 true\n2 0 10 true\n2 10 20 false\n", dir);
+        String expected = runMain(file.toString());
+
+        assertEquals(expected, runMain("--cache-dir=" + cacheDir, file.toString()));
+        assertEquals(expected, runMain("--cache-dir=" + cacheDir, file.toString())); // served from the entry
+        assertEquals("station_id,uptime_percent\n0,100\n1,50\n",
+                runMain("--cache-dir=" + cacheDir, "--format=csv", file.toString()));
+
+        // one station changed: station 0 is reused, station 1 recomputed
+        file = createTempInput(stations + "1 0 10 true\n2 0 10 true\n2 10 40 false\n", dir);
+        assertEquals(runMain(file.toString()), runMain("--cache-dir=" + cacheDir, file.toString()));
+
+        Path bad = createTempInput(stations + "1 0 10 true\n3 0 10 true\n", dir);
+        assertEquals("ERROR", runMain("--cache-dir=" + cacheDir, bad.toString()).trim());
+        assertEquals("ERROR", runMain("--cache-dir=" + cacheDir, bad.toString()).trim());
+        assertEquals("ERROR", runMain("--cache-dir=" + cacheDir, "--window=0:5", file.toString()).trim());
+    }
 }
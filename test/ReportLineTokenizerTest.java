@@ -0,0 +1,57 @@
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReportLineTokenizerTest {
+
+    private int tokenize(ReportLineTokenizer tokenizer, String line) {
+        byte[] b = line.getBytes(StandardCharsets.UTF_8);
+        return tokenizer.tokenize(b, 0, b.length);
+    }
+
+    @Test
+    public void testCanonicalLine() {
+        ReportLineTokenizer tokenizer = new ReportLineTokenizer();
+
+        assertEquals(ReportLineTokenizer.PARSED, tokenize(tokenizer, "  1001\t0  50000 TRUE "));
+        assertEquals(1001L, tokenizer.chargerId);
+        assertEquals(0L, tokenizer.start);
+        assertEquals(50000L, tokenizer.end);
+        assertTrue(tokenizer.up);
+
+        assertEquals(ReportLineTokenizer.PARSED, tokenize(tokenizer, "4294967295 1 2 false"));
+        assertEquals(4294967295L, tokenizer.chargerId);
+        assertFalse(tokenizer.up);
+    }
+
+    @Test
+    public void testUnsigned64BitMax() {
+        ReportLineTokenizer tokenizer = new ReportLineTokenizer();
+
+        assertEquals(ReportLineTokenizer.PARSED, tokenize(tokenizer, "1 0 18446744073709551615 true"));
+        assertEquals("18446744073709551615", Long.toUnsignedString(tokenizer.end));
+
+        // one above 2^64 - 1 is left to the String path, which reports the range error
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "1 0 18446744073709551616 true"));
+    }
+
+    @Test
+    public void testBlankLine() {
+        assertEquals(ReportLineTokenizer.BLANK, tokenize(new ReportLineTokenizer(), " \t "));
+    }
+
+    @Test
+    public void testNonCanonicalLinesUseSlowPath() {
+        ReportLineTokenizer tokenizer = new ReportLineTokenizer();
+
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "1001 0 50"));
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "1001 0 50 true extra"));
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "+1001 0 50 true"));
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "1001 -0 50 true"));
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "4294967296 0 50 true"));
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "1001 0 50 maybe"));
+        assertEquals(ReportLineTokenizer.SLOW_PATH, tokenize(tokenizer, "1001 0 5\u0660 true"));
+    }
+}
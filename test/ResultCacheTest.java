@@ -0,0 +1,116 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    private static final ResultCache.Key A = new ResultCache.Key(10, 0xa);
+    private static final ResultCache.Key B = new ResultCache.Key(10, 0xb);
+    private static final ResultCache.Key C = new ResultCache.Key(10, 0xc);
+
+    private static ResultCache.Results results(int stations, int uptime) {
+        long[] ids = new long[stations];
+        long[] hashes = new long[stations];
+        int[] uptimes = new int[stations];
+        for (int i = 0; i < stations; i++) {
+            ids[i] = i == stations - 1 ? 4294967295L : i;
+            hashes[i] = i * 31L;
+            uptimes[i] = uptime;
+        }
+        return new ResultCache.Results(ids, hashes, uptimes);
+    }
+
+    @Test
+    public void testRoundTripAndStationReuse(@TempDir Path dir) throws Exception {
+        ResultCache cache = new ResultCache(dir, 1 << 20);
+        assertNull(cache.get(C));
+        assertNull(cache.mostRecent());
+
+        cache.put(A, results(3, 100));
+        ResultCache.Results read = cache.get(A);
+        assertArrayEquals(new long[]{0, 1, 4294967295L}, read.stationIds);
+        assertArrayEquals(new int[]{100, 100, 100}, read.uptimes);
+        assertEquals(100, cache.mostRecent().uptime(1, 31));
+        assertEquals(-1, cache.mostRecent().uptime(1, 32)); // hash changed
+        assertEquals(-1, cache.mostRecent().uptime(7, 0));  // unknown station
+
+        Files.write(dir.resolve(B + ".res"), new byte[]{1, 2, 3});
+        assertNull(cache.get(B)); // corrupt entries are misses
+
+        // an entry is only served for the input length and hash it was stored under
+        ResultCache.Key longer = new ResultCache.Key(11, 0xa);
+        Files.copy(dir.resolve(A + ".res"), dir.resolve(longer + ".res"));
+        assertNull(cache.get(longer));
+    }
+
+    @Test
+    public void testKeepsNewestEntryLargerThanBound(@TempDir Path dir) throws Exception {
+        ResultCache cache = new ResultCache(dir, 100);
+        cache.put(A, results(10, 1));
+        cache.put(B, results(100, 2));
+        assertNull(cache.get(A));
+        assertNotNull(cache.get(B));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed(@TempDir Path dir) throws Exception {
+        // each entry is 28 + 100 * 13 bytes; room for two
+        ResultCache cache = new ResultCache(dir, 2 * (28 + 100 * 13));
+        cache.put(A, results(100, 1));
+        Files.setLastModifiedTime(dir.resolve(A + ".res"), FileTime.fromMillis(1000));
+        cache.put(B, results(100, 2));
+        Files.setLastModifiedTime(dir.resolve(B + ".res"), FileTime.fromMillis(2000));
+        assertNotNull(cache.get(A)); // refreshes a, so b is now the oldest
+
+        cache.put(C, results(100, 3));
+        assertNull(cache.get(B));
+        assertNotNull(cache.get(A));
+        assertNotNull(cache.get(C));
+    }
+
+    @Test
+    public void testKeyFollowsContent(@TempDir Path dir) throws Exception {
+        Path x = dir.resolve("x.txt");
+        Path y = dir.resolve("y.txt");
+        Files.writeString(x, "[Stations]\n0 1\n[Charger Availability Reports]\n1 0 10 true\n");
+        Files.writeString(y, "[Stations]\n0 1\n[Charger Availability Reports]\n1 0 10 true\n");
+        assertEquals(ResultCache.key(x), ResultCache.key(y));
+
+        Files.writeString(y, "[Stations]\n0 1\n[Charger Availability Reports]\n1 0 11 true\n");
+        assertNotEquals(ResultCache.key(x), ResultCache.key(y));
+    }
+
+    @Test
+    public void testStationHashFollowsStoredReports() throws Exception {
+        InputParsingValidation parsed = stationHashInput("1 0 10 true\n2 5 15 false\n1 20 30 true\n");
+        // the same data stored in one piece, as from a snapshot or merged parse chunks
+        InputParsingValidation adopted = new InputParsingValidation();
+        adopted.addStation(0L, new long[]{1L, 2L});
+        IntervalColumns whole = new IntervalColumns();
+        whole.addAll(parsed.chargerReports.get(1L));
+        adopted.chargerReports.set(0, whole);
+        adopted.chargerReports.add(2L, 5, 15, false);
+        assertEquals(ResultCache.stationHash(parsed, 0L), ResultCache.stationHash(adopted, 0L));
+
+        long hash = ResultCache.stationHash(parsed, 0L);
+        assertNotEquals(hash, ResultCache.stationHash(stationHashInput("1 0 10 true\n2 5 15 true\n1 20 30 true\n"), 0L));
+        assertNotEquals(hash, ResultCache.stationHash(stationHashInput("1 0 10 true\n2 5 16 false\n1 20 30 true\n"), 0L));
+        assertNotEquals(hash, ResultCache.stationHash(stationHashInput("1 20 30 true\n2 5 15 false\n1 0 10 true\n"), 0L));
+    }
+
+    private static InputParsingValidation stationHashInput(String reports) throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.addStation(0L, new long[]{1L, 2L});
+        for (String line : reports.split("\n")) {
+            String[] p = line.split(" ");
+            parser.chargerReports.add(Long.parseLong(p[0]), Long.parseLong(p[1]), Long.parseLong(p[2]),
+                    Boolean.parseBoolean(p[3]));
+        }
+        return parser;
+    }
+}
@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedReportParserTest {
+
+    private static final String STATIONS = "[Stations]\n0 1001 1002\n1 1003\n2 1004\n";
+
+    @Test
+    public void testShardsMatchSingleFile(@TempDir Path dir) throws Exception {
+        Path single = dir.resolve("single.txt");
+        Files.writeString(single, STATIONS + "[Charger Availability Reports]\n"
+                + "1001 0 50000 true\n1001 50000 100000 true\n1002 50000 100000 true\n"
+                + "1003 25000 75000 false\n1004 0 50000 true\n1004 100000 200000 true\n");
+
+        Path stations = dir.resolve("stations.txt");
+        Files.writeString(stations, STATIONS);
+        Path shards = Files.createDirectory(dir.resolve("shards"));
+        Files.writeString(shards.resolve("a.txt"), "1001 0 50000 true\n\n1001 50000 100000 true\n");
+        Files.writeString(shards.resolve("b.txt"), "[Charger Availability Reports]\n1002 50000 100000 true\n");
+        Files.writeString(shards.resolve("c.txt"), STATIONS + "[Charger Availability Reports]\n"
+                + "1003 25000 75000 false\n1004 0 50000 true\n1004 100000 200000 true\n");
+        Files.writeString(shards.resolve("empty.txt"), "");
+
+        String expected = MainIntegrationTest.runMain(single.toString());
+        assertEquals("0 100\n1 0\n2 75\n".replace("\n", System.lineSeparator()), expected);
+        assertEquals(expected, MainIntegrationTest.runMain("--reports=" + shards, stations.toString()));
+        assertEquals(expected, MainIntegrationTest.runMain("--reports=" + shards, "--parse-threads=1", stations.toString()));
+    }
+
+    @Test
+    public void testFirstInvalidShardWins(@TempDir Path dir) throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        Path stations = dir.resolve("stations.txt");
+        Files.writeString(stations, STATIONS);
+        parser.parseStationsFile(stations.toString());
+
+        Path ok = Files.writeString(dir.resolve("1.txt"), "1001 0 10 true\n");
+        Path unknown = Files.writeString(dir.resolve("2.txt"), "1001 0 10 true\n7777 0 10 true\n");
+        Path badOrder = Files.writeString(dir.resolve("3.txt"), "1001 10 0 true\n");
+
+        InputFormatException e = assertThrows(InputFormatException.class,
+                () -> ShardedReportParser.parse(parser, List.of(ok, unknown, badOrder), 3));
+        assertEquals("Report Charger ID not found in station definitions: 7777", e.getMessage());
+    }
+
+    @Test
+    public void testReportsKeepShardOrder(@TempDir Path dir) throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.parseStationsFile(Files.writeString(dir.resolve("stations.txt"), STATIONS).toString());
+        List<Path> shards = new java.util.ArrayList<>();
+        for (int day = 0; day < 8; day++) {
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < 100; i++) lines.append("1001 ").append(day * 1000 + i * 10).append(' ')
+                    .append(day * 1000 + i * 10 + 5).append(" true\n");
+            shards.add(Files.writeString(dir.resolve("day-" + day + ".txt"), lines));
+        }
+
+        ShardedReportParser.parse(parser, shards, 8);
+        IntervalColumns columns = parser.chargerReports.get(1001L);
+        assertEquals(800, columns.size());
+        assertTrue(columns.isSortedByStart()); // time-ordered shards give one sorted run
+    }
+
+    @Test
+    public void testShardStationsMustMatch(@TempDir Path dir) throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        Path stations = Files.writeString(dir.resolve("stations.txt"), STATIONS);
+        parser.parseStationsFile(stations.toString());
+        Path shard = Files.writeString(dir.resolve("s.txt"),
+                "[Stations]\n0 1001\n[Charger Availability Reports]\n1001 0 10 true\n");
+
+        assertThrows(InputFormatException.class, () -> ShardedReportParser.parse(parser, List.of(shard), 2));
+    }
+
+    @Test
+    public void testResolveGlobAndDirectory(@TempDir Path dir) throws Exception {
+        Files.writeString(dir.resolve("day-2.txt"), "");
+        Files.writeString(dir.resolve("day-1.txt"), "");
+        Files.writeString(dir.resolve("notes.md"), "");
+
+        assertEquals(List.of(dir.resolve("day-1.txt"), dir.resolve("day-2.txt")),
+                ShardedReportParser.resolve(dir.resolve("day-*.txt").toString()));
+        assertEquals(3, ShardedReportParser.resolve(dir.toString()).size());
+        assertThrows(java.io.IOException.class, () -> ShardedReportParser.resolve(dir.resolve("none-*").toString()));
+    }
+}
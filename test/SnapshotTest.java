@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+
+    private InputParsingValidation sampleInput() throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.addStation(0L, new long[]{1001L, 1002L});
+        parser.addStation(4294967295L, new long[]{4294967295L});
+        parser.addStation(7L, new long[]{3L}); // charger without reports
+
+        Random random = new Random(3);
+        for (int i = 0; i < 1000; i++) {
+            long start = random.nextLong();
+            long end = start + 1 + random.nextInt(1000);
+            if (Long.compareUnsigned(start, end) >= 0) continue;
+            long cid = i % 3 == 0 ? 4294967295L : 1001 + random.nextInt(2);
+            parser.chargerReports.add(cid, start, end, random.nextBoolean());
+        }
+        return parser;
+    }
+
+    private void assertSameData(InputParsingValidation expected, InputParsingValidation actual) {
+        assertEquals(expected.stationToChargers, actual.stationToChargers);
+        for (long stationId : expected.stationToChargers.stationIds()) {
+            for (long cid : expected.stationToChargers.chargers(stationId)) {
+                IntervalColumns e = expected.chargerReports.get(cid);
+                IntervalColumns a = actual.chargerReports.get(cid);
+                if (e == null) {
+                    assertNull(a);
+                    continue;
+                }
+                assertEquals(e.size(), a.size());
+                assertEquals(e.upCount(), a.upCount());
+                for (int i = 0; i < e.size(); i++) {
+                    assertEquals(e.start(i), a.start(i));
+                    assertEquals(e.end(i), a.end(i));
+                    assertEquals(e.isUp(i), a.isUp(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip(@TempDir Path dir) throws Exception {
+        InputParsingValidation parser = sampleInput();
+        Path packed = dir.resolve("packed.snap");
+        Path delta = dir.resolve("delta.snap");
+
+        Snapshot.write(parser, packed, false);
+        Snapshot.write(parser, delta, true);
+
+        assertTrue(Snapshot.isSnapshot(packed));
+        assertSameData(parser, Snapshot.read(packed));
+        assertSameData(parser, Snapshot.read(delta));
+    }
+
+    @Test
+    public void testRestoredColumnsAcceptNewReports(@TempDir Path dir) throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.addStation(0L, new long[]{1L, 2L});
+        parser.chargerReports.add(1L, 0, 10, true); // exactly one interval
+        Path file = dir.resolve("one.snap");
+        Snapshot.write(parser, file, false);
+
+        InputParsingValidation restored = Snapshot.read(file);
+        IntervalColumns columns = restored.chargerReports.get(1L);
+        columns.add(10, 20, false);
+        columns.add(20, 30, true);
+        assertEquals(3, columns.size());
+        assertEquals(2, columns.upCount());
+        assertEquals(30, columns.end(2));
+    }
+
+    @Test
+    public void testCorruptSnapshotIsRejected(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("input.snap");
+        Snapshot.write(sampleInput(), file, false);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(InputFormatException.class, () -> Snapshot.read(file));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 3));
+        assertThrows(InputFormatException.class, () -> Snapshot.read(file));
+    }
+
+    @Test
+    public void testOversizedCountIsRejectedBeforeAllocating(@TempDir Path dir) throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.addStation(0L, new long[]{1L});
+        parser.chargerReports.add(1L, 0, 10, true);
+        Path file = dir.resolve("count.snap");
+        Snapshot.write(parser, file, false);
+
+        // magic, flags, station count, station ID, charger count, charger ID: the interval count is at 28
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(28, 0x7ffffff0);
+        Files.write(file, bytes);
+        InputFormatException e = assertThrows(InputFormatException.class, () -> Snapshot.read(file));
+        assertTrue(e.getMessage().contains("interval count"), e.getMessage());
+
+        ByteBuffer.wrap(bytes).putInt(20, 0x7ffffff0); // charger count
+        Files.write(file, bytes);
+        assertThrows(InputFormatException.class, () -> Snapshot.read(file));
+    }
+
+    @Test
+    public void testTextInputIsNotASnapshot(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("input.txt");
+        Files.writeString(file, "[Stations]\n0 1\n[Charger Availability Reports]\n1 0 1 true\n");
+        assertFalse(Snapshot.isSnapshot(file));
+    }
+}
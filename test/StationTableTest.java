@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StationTableTest {
+
+    @Test
+    public void testLookupsAcrossGrowthAndFullIdRange() {
+        StationTable table = new StationTable();
+        // sequential IDs, IDs that differ only in high bits, and the extremes of the unsigned range
+        for (long s = 0; s < 5000; s++) table.put(s, 2 * s, 2 * s + 1);
+        table.put(4294967295L, 4294967295L, 1L << 31);
+        table.put(1L << 20, 4294967294L);
+
+        assertEquals(5002, table.size());
+        assertEquals(10003, table.chargerCount());
+        for (long s = 0; s < 5000; s++) {
+            assertArrayEquals(new long[]{2 * s, 2 * s + 1}, table.chargers(s));
+            assertEquals(s, table.stationOf(2 * s + 1));
+        }
+        int last = table.stationOrdinal(4294967295L);
+        assertEquals(10000, table.chargerFrom(last));
+        assertEquals(10002, table.chargerTo(last));
+        assertEquals(1L << 31, table.chargerId(table.chargerFrom(last) + 1));
+        assertThrows(IllegalStateException.class, () -> table.addCharger(last, 77L));
+        assertEquals(4294967295L, table.stationOf(4294967295L));
+        assertEquals(4294967295L, table.stationOf(1L << 31));
+        assertArrayEquals(new long[]{4294967295L, 1L << 31}, table.chargers(4294967295L));
+        assertEquals(-1, table.stationOf(10_000_000L));
+        assertNull(table.chargers(6000L));
+        assertFalse(table.containsCharger(10_000_000L));
+        // IDs that share their low 32 bits with real ones are outside the range, not aliases
+        assertFalse(table.containsStation(5L + (1L << 32)));
+        assertNull(table.chargers(5L + (1L << 32)));
+        assertEquals(-1, table.stationOrdinal(-1L));
+        assertEquals(-1, table.stationOf(11L + (1L << 32)));
+        assertThrows(IllegalArgumentException.class, () -> table.put(1L << 32));
+
+        long[] ids = table.stationIds();
+        assertEquals(4294967295L, ids[ids.length - 1]);
+        for (int i = 1; i < ids.length; i++) assertTrue(ids[i - 1] < ids[i]);
+    }
+
+    @Test
+    public void testDuplicatesAndEquality() {
+        StationTable a = new StationTable();
+        a.put(1L, 10L, 11L);
+        a.put(2L);
+        assertThrows(IllegalArgumentException.class, () -> a.put(1L, 12L));
+        assertThrows(IllegalArgumentException.class, () -> a.put(3L, 12L, 11L));
+        assertThrows(IllegalArgumentException.class, () -> a.put(3L, 12L, 12L));
+        assertFalse(a.containsStation(3L)); // a failed put adds nothing
+        assertFalse(a.containsCharger(12L));
+        assertEquals(0, a.chargers(2L).length);
+
+        StationTable b = new StationTable();
+        b.put(2L);
+        b.put(1L, 10L, 11L);
+        StationTable c = new StationTable();
+        c.put(1L, 11L, 10L);
+        c.put(2L);
+        assertEquals(a, b); // station order does not matter
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c); // charger order does
+    }
+}
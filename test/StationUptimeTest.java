@@ -1,21 +1,15 @@
 import org.junit.jupiter.api.Test;
-import java.math.BigInteger;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class StationUptimeTest {
 
-    private Interval iv(long s, long e) {
-        return new Interval(BigInteger.valueOf(s), BigInteger.valueOf(e));
-    }
-
     @Test
     public void testFullUptimeSingleCharger() {
         InputParsingValidation parser = new InputParsingValidation();
 
-        parser.stationToChargers.put(0L, List.of(1001L));
-        parser.chargerAll.put(1001L, List.of(iv(0, 100)));
-        parser.chargerUp.put(1001L, List.of(iv(0, 100)));
+        parser.stationToChargers.put(0L, 1001L);
+        parser.chargerReports.add(1001L, 0, 100, true);
 
         StationUptime service = new StationUptime(parser);
         assertEquals(100, service.computeUptime(0L));
@@ -25,8 +19,8 @@ public class StationUptimeTest {
     public void testZeroUptime() {
         InputParsingValidation parser = new InputParsingValidation();
 
-        parser.stationToChargers.put(1L, List.of(10L));
-        parser.chargerAll.put(10L, List.of(iv(0, 100)));
+        parser.stationToChargers.put(1L, 10L);
+        parser.chargerReports.add(10L, 0, 100, false);
         // no up intervals
 
         StationUptime service = new StationUptime(parser);
@@ -37,16 +31,10 @@ public class StationUptimeTest {
     public void testSpanBasedUptime() {
         InputParsingValidation parser = new InputParsingValidation();
 
-        parser.stationToChargers.put(2L, List.of(1004L));
+        parser.stationToChargers.put(2L, 1004L);
 
-        parser.chargerAll.put(1004L, List.of(
-                iv(0, 50000),
-                iv(100000, 200000)
-        ));
-        parser.chargerUp.put(1004L, List.of(
-                iv(0, 50000),
-                iv(100000, 200000)
-        ));
+        parser.chargerReports.add(1004L, 0, 50000, true);
+        parser.chargerReports.add(1004L, 100000, 200000, true);
 
         StationUptime service = new StationUptime(parser);
 
@@ -57,12 +45,10 @@ public class StationUptimeTest {
     public void testMultipleChargersSpanMerge() {
         InputParsingValidation parser = new InputParsingValidation();
 
-        parser.stationToChargers.put(99L, List.of(1L, 2L));
+        parser.stationToChargers.put(99L, 1L, 2L);
 
-        parser.chargerAll.put(1L, List.of(iv(0, 100)));     // up
-        parser.chargerUp.put(1L, List.of(iv(0, 100)));
-
-        parser.chargerAll.put(2L, List.of(iv(200, 300)));   // down
+        parser.chargerReports.add(1L, 0, 100, true);      // up
+        parser.chargerReports.add(2L, 200, 300, false);   // down
 
         StationUptime service = new StationUptime(parser);
 
@@ -71,4 +57,44 @@ public class StationUptimeTest {
         // uptime = 33%
         assertEquals(33, service.computeUptime(99L));
     }
+
+    @Test
+    public void testTimestampsNearUnsigned64BitMax() {
+        InputParsingValidation parser = new InputParsingValidation();
+
+        parser.stationToChargers.put(3L, 7L);
+
+        long max = Long.parseUnsignedLong("18446744073709551615"); // 2^64 - 1
+        // up over the whole upper half of the range, down over the lower half
+        parser.chargerReports.add(7L, Long.MIN_VALUE, max, true);
+        parser.chargerReports.add(7L, 0, Long.MIN_VALUE, false);
+
+        StationUptime service = new StationUptime(parser);
+
+        // (2^63 - 1) * 100 / (2^64 - 1) = 49.99...
+        assertEquals(49, service.computeUptime(3L));
+    }
+
+    @Test
+    public void testFastPercentMatchesBigInteger() {
+        long[] edges = {0, 1, 99, 100, Long.MAX_VALUE / 100, Long.MAX_VALUE / 100 + 1, Long.MAX_VALUE,
+                Long.MIN_VALUE, -1L / 100, Long.divideUnsigned(-1L, 100), Long.divideUnsigned(-1L, 100) + 1, -2, -1,
+                1L << 58, (1L << 58) + 7, 3 * (1L << 58) + 1, Long.MAX_VALUE - 1};
+        for (long available : edges) {
+            for (long reporting : edges) {
+                if (reporting == 0) continue;
+                assertEquals(StationUptime.percentExact(available, reporting),
+                        StationUptime.percent(available, reporting),
+                        Long.toUnsignedString(available) + " / " + Long.toUnsignedString(reporting));
+            }
+        }
+
+        Random random = new Random(20);
+        for (int i = 0; i < 100_000; i++) {
+            long reporting = random.nextLong() >>> random.nextInt(64);
+            long available = random.nextLong() >>> random.nextInt(64);
+            if (reporting == 0) continue;
+            assertEquals(StationUptime.percentExact(available, reporting), StationUptime.percent(available, reporting));
+        }
+    }
 }
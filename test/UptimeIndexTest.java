@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UptimeIndexTest {
+
+    private InputParsingValidation sampleInput() {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(0L, 1001L, 1002L);
+        parser.stationToChargers.put(2L, 1004L);
+
+        parser.chargerReports.add(1001L, 0, 50000, true);
+        parser.chargerReports.add(1001L, 50000, 100000, true);
+        parser.chargerReports.add(1002L, 50000, 100000, true);
+
+        parser.chargerReports.add(1004L, 0, 50000, true);
+        parser.chargerReports.add(1004L, 100000, 200000, true);
+        return parser;
+    }
+
+    @Test
+    public void testFullSpanMatchesComputeUptime() {
+        InputParsingValidation parser = sampleInput();
+        UptimeIndex index = UptimeIndex.build(parser);
+
+        assertEquals(100, index.uptime(0L, 0, 100000));
+        assertEquals(new StationUptime(parser).computeUptime(2L), index.uptime(2L, 0, 200000));
+        // windows reaching past the reporting span are clipped to it
+        assertEquals(75, index.uptime(2L, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testWindows() {
+        UptimeIndex index = UptimeIndex.build(sampleInput());
+
+        assertEquals(0, index.uptime(2L, 50000, 100000));     // the gap only
+        assertEquals(50, index.uptime(2L, 25000, 75000));     // half gap
+        assertEquals(100, index.uptime(2L, 120000, 130000));  // inside one interval
+        assertEquals(0, index.uptime(2L, 300000, 400000));    // outside the reporting span
+        assertEquals(0, index.uptime(7L, 0, 10));             // unknown station
+        assertThrows(IllegalArgumentException.class, () -> index.uptime(2L, 10, 10));
+    }
+
+    @Test
+    public void testBatchMatchesSingleQueries() {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(0L, 1L, 2L);
+        Random random = new Random(7);
+        for (int i = 0; i < 3000; i++) {
+            long start = random.nextInt(1_000_000);
+            parser.chargerReports.add(1 + random.nextInt(2), start, start + 1 + random.nextInt(500), random.nextBoolean());
+        }
+        UptimeIndex index = UptimeIndex.build(parser);
+
+        int n = 5000;
+        long[] stations = new long[n];
+        long[] from = new long[n];
+        long[] to = new long[n];
+        for (int i = 0; i < n; i++) {
+            from[i] = random.nextInt(1_000_000);
+            to[i] = from[i] + 1 + random.nextInt(100_000);
+        }
+        int[] batch = index.uptime(stations, from, to);
+        for (int i = 0; i < n; i++) {
+            assertEquals(index.uptime(0L, from[i], to[i]), batch[i]);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UptimeMetricsTest {
+
+    private static final String INPUT =
+            "[Stations]\n" +
+                    "0 1001 1002\n" +
+                    "1 1003\n" +
+                    "[Charger Availability Reports]\n" +
+                    "1001 0 50000 true\n" +
+                    "\n" +
+                    "1001 50000 100000 true\n" +
+                    "1002 50000 100000 true\n" +
+                    "1003 25000 75000 false\n";
+
+    @AfterEach
+    public void restore() {
+        UptimeMetrics.INSTANCE.setDetailed(false);
+        UptimeMetrics.INSTANCE.reset();
+    }
+
+    @Test
+    public void testCountersCoverParseAndCompute(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("input.txt");
+        Files.writeString(file, INPUT);
+        UptimeMetrics metrics = UptimeMetrics.INSTANCE;
+        metrics.reset();
+        metrics.setDetailed(true);
+
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.parse(file.toString());
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            new StationUptime(parser).computeAndPrint();
+        } finally {
+            System.setOut(original);
+        }
+
+        assertEquals(4, metrics.getReportLines()); // the blank line is not a report
+        assertEquals(INPUT.length(), metrics.getBytesRead());
+        assertTrue(metrics.getParseWallNanos() > 0);
+        assertEquals(2, metrics.getStationsComputed());
+        assertEquals(4, metrics.getStationIntervals());
+        assertEquals(3, metrics.getMaxStationIntervals());
+        assertTrue(metrics.getComputeWallNanos() > 0);
+        assertTrue(metrics.summary().startsWith("report lines: 4 ("), metrics.summary());
+    }
+
+    @Test
+    public void testPerStationMetricsOnlyInDetailedMode() throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.addStation(0L, new long[]{1L});
+        parser.chargerReports.add(1L, 0, 10, true);
+        UptimeMetrics.INSTANCE.reset();
+
+        assertEquals(100, new StationUptime(parser).computeUptime(0L));
+        assertEquals(0, UptimeMetrics.INSTANCE.getStationsComputed());
+
+        UptimeMetrics.INSTANCE.setDetailed(true);
+        assertEquals(100, new StationUptime(parser).computeUptime(0L));
+        assertEquals(1, UptimeMetrics.INSTANCE.getStationsComputed());
+    }
+
+    @Test
+    public void testRegistersMXBean() throws Exception {
+        UptimeMetrics.INSTANCE.registerMBean();
+        UptimeMetrics.INSTANCE.registerMBean(); // idempotent
+        ObjectName name = new ObjectName("StationUptime:type=Metrics");
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ReportLines"));
+    }
+}
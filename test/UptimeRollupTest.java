@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UptimeRollupTest {
+
+    @Test
+    public void testBucketsSplitIntervals() {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(2L, 1004L);
+        parser.stationToChargers.put(5L);
+        parser.chargerReports.add(1004L, 0, 50000, true);
+        parser.chargerReports.add(1004L, 100000, 200000, true);
+
+        UptimeRollup rollup = UptimeRollup.build(parser, 40000, 0, 2);
+        UptimeRollup.Series series = rollup.series(2L);
+
+        assertEquals(5, series.buckets());
+        assertArrayEquals(new long[]{40000, 10000, 20000, 40000, 40000}, series.covered);
+        assertArrayEquals(new long[]{40000, 40000, 40000, 40000, 40000}, series.reporting);
+        assertEquals(0, series.bucketStart(0));
+        assertEquals(160000, series.bucketStart(4));
+        assertEquals(25, series.uptime(1));
+        assertEquals(0, rollup.series(5L).buckets());
+        assertNull(rollup.series(7L));
+    }
+
+    @Test
+    public void testBucketsMatchWindowQueries() {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(0L, 1L, 2L);
+        Random random = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            long start = 5000 + random.nextInt(1_000_000);
+            parser.chargerReports.add(1 + random.nextInt(2), start, start + 1 + random.nextInt(3000), random.nextBoolean());
+        }
+        UptimeIndex index = UptimeIndex.build(parser);
+        long width = 7919;
+        long origin = 1234;
+        UptimeRollup.Series series = UptimeRollup.build(parser, width, origin, 1).series(0L);
+
+        for (int k = 0; k < series.buckets(); k++) {
+            long from = series.bucketStart(k);
+            if (k > 0) assertEquals(0, (from - origin) % width);
+            assertEquals(index.uptime(0L, from, from + width), series.uptime(k), "bucket " + k);
+        }
+    }
+
+    @Test
+    public void testUnsignedRangeAndOriginAbove() {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(1L, 10L);
+        // -10 is 2^64 - 10: the span reaches the top of the unsigned range
+        parser.chargerReports.add(10L, 5, 100, true);
+        parser.chargerReports.add(10L, -100, -10, true);
+
+        long width = Long.MIN_VALUE; // 2^63
+        UptimeRollup.Series series = UptimeRollup.build(parser, width, 7, 1).series(1L);
+
+        // buckets [7 - 2^63, 7), [7, 2^63 + 7), [2^63 + 7, 2^64 + 7); the first starts below 0
+        assertEquals(3, series.buckets());
+        assertEquals(0, series.bucketStart(0));
+        assertEquals(7, series.bucketStart(1));
+        assertEquals(Long.MIN_VALUE + 7, series.bucketStart(2));
+        assertArrayEquals(new long[]{2, 93, 90}, series.covered);
+        assertEquals(2, series.reporting[0]);
+        assertEquals(-10 - (Long.MIN_VALUE + 7), series.reporting[2]);
+        assertEquals(100, series.uptime(0));
+    }
+
+    @Test
+    public void testRejectsTooManyBuckets() {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.stationToChargers.put(1L, 10L);
+        parser.chargerReports.add(10L, 0, -1, true);
+
+        assertThrows(IllegalArgumentException.class, () -> UptimeRollup.build(parser, 1000, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> UptimeRollup.build(parser, 0, 0, 1));
+    }
+}
@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UptimeServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private UptimeServer server;
+
+    private UptimeServer start() throws Exception {
+        InputParsingValidation parser = new InputParsingValidation();
+        parser.addStation(0L, new long[]{1001L, 1002L});
+        parser.addStation(1L, new long[]{1003L});
+        parser.addStation(2L, new long[]{1004L});
+        parser.chargerReports.add(1001L, 0, 50000, true);
+        parser.chargerReports.add(1002L, 50000, 100000, true);
+        parser.chargerReports.add(1003L, 25000, 75000, false);
+        parser.chargerReports.add(1004L, 0, 50000, true);
+        parser.chargerReports.add(1004L, 100000, 200000, true);
+        server = new UptimeServer(parser);
+        server.start(0, 4);
+        return server;
+    }
+
+    @AfterEach
+    public void stop() {
+        if (server != null) server.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + "/reports"))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testQueriesMatchBatchOutput() throws Exception {
+        start();
+        assertEquals("0 100\n1 0\n2 75\n", get("/uptime").body());
+        assertEquals("2 75\n", get("/uptime?station=2").body());
+        assertEquals(404, get("/uptime?station=7").statusCode());
+        assertEquals(400, get("/uptime?station=x").statusCode());
+        assertEquals("2 75\n", get("/uptime?station=0002").body()); // the parsed ID is echoed
+        assertEquals(400, get("/uptime?station=4294967298").statusCode());
+        assertFalse(get("/uptime?station=%3Cb%3E").body().contains("<b>"));
+    }
+
+    @Test
+    public void testIngestionIsValidatedAndAtomic() throws Exception {
+        start();
+        HttpResponse<String> ok = post("1003 75000 125000 true\n1004 50000 100000 false\n");
+        assertEquals(200, ok.statusCode());
+        assertEquals("OK 2\n", ok.body());
+        assertEquals("1 50\n", get("/uptime?station=1").body());
+        assertEquals("2 75\n", get("/uptime?station=2").body());
+
+        HttpResponse<String> bad = post("1003 0 25000 true\n9999 0 1 true\n");
+        assertEquals(400, bad.statusCode());
+        assertTrue(bad.body().contains("not found in station definitions"), bad.body());
+        assertEquals("1 50\n", get("/uptime?station=1").body()); // first line not applied either
+    }
+
+    @Test
+    public void testConcurrentIngestionAndQueries() throws Exception {
+        start();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        long start = 200000 + (thread * 20L + i) * 10;
+                        if (post("1004 " + start + " " + (start + 10) + " true\n").statusCode() != 200) return -1;
+                        if (get("/uptime?station=2").statusCode() != 200) return -1;
+                    }
+                    return 0;
+                }));
+            }
+            for (Future<Integer> result : results) assertEquals(0, result.get(30, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+        // [0, 50000) and [100000, 201600) up over [0, 201600)
+        assertEquals(String.valueOf(server.uptime(2L)), get("/uptime?station=2").body().trim().split(" ")[1]);
+        assertEquals(75, server.uptime(2L));
+    }
+}
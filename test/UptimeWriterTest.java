@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UptimeWriterTest {
+
+    private static final long[] STATIONS = {0, 7, 4294967295L};
+    private static final int[] UPTIMES = {100, 0, 42};
+
+    private static byte[] write(UptimeWriter.Format format, int repeat) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (UptimeWriter writer = new UptimeWriter(out, format)) {
+            for (int r = 0; r < repeat; r++) {
+                for (int i = 0; i < STATIONS.length; i++) writer.write(STATIONS[i], UPTIMES[i]);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testTextIsByteIdenticalToPrintln() {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        PrintStream println = new PrintStream(expected);
+        for (int r = 0; r < 5000; r++) { // several buffer flushes
+            for (int i = 0; i < STATIONS.length; i++) println.println(STATIONS[i] + " " + UPTIMES[i]);
+        }
+        println.flush();
+
+        assertArrayEquals(expected.toByteArray(), write(UptimeWriter.Format.TEXT, 5000));
+    }
+
+    @Test
+    public void testCsvAndJsonLines() {
+        assertEquals("station_id,uptime_percent\n0,100\n7,0\n4294967295,42\n",
+                new String(write(UptimeWriter.Format.CSV, 1), StandardCharsets.US_ASCII));
+        assertEquals("{\"station_id\":0,\"uptime_percent\":100}\n"
+                        + "{\"station_id\":7,\"uptime_percent\":0}\n"
+                        + "{\"station_id\":4294967295,\"uptime_percent\":42}\n",
+                new String(write(UptimeWriter.Format.JSONL, 1), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testBinaryRecords() throws Exception {
+        byte[] bytes = write(UptimeWriter.Format.BINARY, 1);
+        assertEquals(UptimeWriter.BINARY_MAGIC.length + 3 * 5, bytes.length);
+        assertArrayEquals(UptimeWriter.BINARY_MAGIC, Arrays.copyOf(bytes, UptimeWriter.BINARY_MAGIC.length));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        in.skipNBytes(UptimeWriter.BINARY_MAGIC.length);
+        for (int i = 0; i < STATIONS.length; i++) {
+            assertEquals(STATIONS[i], Integer.toUnsignedLong(in.readInt()));
+            assertEquals(UPTIMES[i], in.readUnsignedByte());
+        }
+    }
+
+    @Test
+    public void testBucketRecords() throws Exception {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        try (UptimeWriter c = UptimeWriter.forBuckets(csv, UptimeWriter.Format.CSV);
+             UptimeWriter b = UptimeWriter.forBuckets(binary, UptimeWriter.Format.BINARY)) {
+            for (UptimeWriter writer : new UptimeWriter[]{c, b}) {
+                writer.writeBucket(7, 3600, 50);
+                writer.writeBucket(4294967295L, -1L, 100); // bucket start 2^64 - 1
+            }
+            assertThrows(IllegalStateException.class, () -> c.write(7, 50));
+        }
+        assertEquals("station_id,bucket_start,uptime_percent\n7,3600,50\n4294967295,18446744073709551615,100\n",
+                csv.toString(StandardCharsets.US_ASCII));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(binary.toByteArray()));
+        assertArrayEquals(UptimeWriter.BINARY_BUCKET_MAGIC, in.readNBytes(UptimeWriter.BINARY_BUCKET_MAGIC.length));
+        assertEquals(7, in.readInt());
+        assertEquals(3600, in.readLong());
+        assertEquals(50, in.readUnsignedByte());
+        assertEquals(4294967295L, Integer.toUnsignedLong(in.readInt()));
+        assertEquals(-1L, in.readLong());
+        assertEquals(100, in.readUnsignedByte());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testFormatNames() {
+        assertEquals(UptimeWriter.Format.JSONL, UptimeWriter.Format.parse("jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> UptimeWriter.Format.parse("xml"));
+    }
+}